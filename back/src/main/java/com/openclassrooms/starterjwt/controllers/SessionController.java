@@ -1,52 +1,215 @@
 package com.openclassrooms.starterjwt.controllers;
 
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.dto.SessionCursor;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import com.openclassrooms.starterjwt.dto.SessionPage;
+import com.openclassrooms.starterjwt.dto.SessionView;
+import com.openclassrooms.starterjwt.dto.WaitlistPosition;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import com.openclassrooms.starterjwt.util.ETags;
+import com.openclassrooms.starterjwt.util.IdList;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import lombok.extern.log4j.Log4j2;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
 import javax.validation.Valid;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.Objects;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = {"ETag", "X-Next-Cursor", "X-Prev-Cursor", "Link"})
 @RestController
 @RequestMapping("/api/session")
 @Log4j2
 public class SessionController {
+    static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    static final String PREVIOUS_CURSOR_HEADER = "X-Prev-Cursor";
+    static final int DEFAULT_PAGE_SIZE = 20;
+    static final int MAX_PAGE_SIZE = 100;
+    static final String NDJSON = "application/x-ndjson";
+
     private final SessionMapper sessionMapper;
     private final SessionService sessionService;
+    private final ObjectMapper objectMapper;
+    private final WaitlistService waitlistService;
 
 
     public SessionController(SessionService sessionService,
-                             SessionMapper sessionMapper) {
+                             SessionMapper sessionMapper,
+                             ObjectMapper objectMapper,
+                             WaitlistService waitlistService) {
         this.sessionMapper = sessionMapper;
         this.sessionService = sessionService;
+        this.objectMapper = objectMapper;
+        this.waitlistService = waitlistService;
     }
 
+    /**
+     * The ETag is the session version, which participations bump as well.
+     * A cache hit with a matching If-None-Match is answered without any query.
+     */
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            Session session = this.sessionService.getById(Long.valueOf(id));
+            SessionDto session = this.sessionService.findDtoById(Long.valueOf(id));
 
             if (session == null) {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ETags.conditional(ifNoneMatch, ETags.strong(session.getId(), session.getVersion()), () -> session);
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Everything the detail page needs for the authenticated user in one
+     * round trip and one query, instead of the session, then its teacher,
+     * then a scan of the participant ids on the client.
+     */
+    @GetMapping("/{id}/view")
+    public ResponseEntity<?> findViewById(@PathVariable("id") String id,
+                                          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            UserDetailsImpl caller = (UserDetailsImpl) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
+            SessionView view = this.sessionService.findViewById(Long.valueOf(id), caller.getId());
+
+            if (view == null) {
+                return ResponseEntity.notFound().build();
+            }
+
+            // Participations bump the version; the caller's flag is part of the representation too
+            String etag = ETags.weak(view.getId(), Objects.hash(view.getVersion(), view.isParticipating()));
+            return ETags.conditional(ifNoneMatch, etag, () -> view);
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * Without parameters the whole list is returned as before. Any paging or
+     * filter parameter switches to a keyset page over (date, id): the body
+     * stays a plain array and the neighbouring pages are announced through
+     * the X-Next-Cursor / X-Prev-Cursor and Link headers.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Session> sessions = this.sessionService.findAll();
+    public ResponseEntity<?> findAll(@RequestParam(value = "after", required = false) String after,
+                                     @RequestParam(value = "before", required = false) String before,
+                                     @RequestParam(value = "limit", required = false) Integer limit,
+                                     @RequestParam(value = "from", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date from,
+                                     @RequestParam(value = "to", required = false)
+                                     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Date to,
+                                     @RequestParam(value = "teacherId", required = false) Long teacherId,
+                                     @RequestParam(value = "freeSpots", required = false) Boolean freeSpots,
+                                     @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        if (after == null && before == null && limit == null && from == null && to == null
+                && teacherId == null && freeSpots == null) {
+            List<SessionDto> sessions = this.sessionService.findAllSummaries();
 
-        return ResponseEntity.ok().body(this.sessionMapper.toDto(sessions));
+            return ETags.conditional(ifNoneMatch, ETags.weak(sessions.size(), sessions.hashCode()), () -> sessions);
+        }
+
+        if (after != null && before != null) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : Math.max(1, Math.min(limit, MAX_PAGE_SIZE));
+        SessionFilter filter = SessionFilter.builder()
+                .from(from)
+                .to(to)
+                .teacherId(teacherId)
+                .freeSpotsOnly(Boolean.TRUE.equals(freeSpots))
+                .build();
+        SessionPage page = before != null
+                ? this.sessionService.findPage(SessionCursor.decode(before), true, pageSize, filter)
+                : this.sessionService.findPage(after != null ? SessionCursor.decode(after) : null, false, pageSize, filter);
+
+        HttpHeaders headers = new HttpHeaders();
+        List<String> links = new ArrayList<>();
+        if (page.getNextCursor() != null) {
+            headers.set(NEXT_CURSOR_HEADER, page.getNextCursor());
+            links.add(link("after", page.getNextCursor(), "before", "next"));
+        }
+        if (page.getPreviousCursor() != null) {
+            headers.set(PREVIOUS_CURSOR_HEADER, page.getPreviousCursor());
+            links.add(link("before", page.getPreviousCursor(), "after", "prev"));
+        }
+        if (!links.isEmpty()) {
+            headers.set(HttpHeaders.LINK, String.join(", ", links));
+        }
+
+        String etag = ETags.weak(page.getItems().size(), page.getItems().hashCode());
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).eTag(etag).build();
+        }
+        return ResponseEntity.ok().headers(headers).eTag(etag).body(page.getItems());
+    }
+
+    /**
+     * {@code ?ids=} multi-get in request order. Only the sessions missing
+     * from the session cache are queried, all together.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> findByIds(@RequestParam("ids") String ids) {
+        try {
+            MultiGetResult<SessionDto> sessions = this.sessionService.findDtosByIds(IdList.parse(ids, IdList.MAX_IDS));
+
+            return ResponseEntity.ok().body(sessions);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Writes the whole catalogue as newline-delimited JSON, one SessionDto
+     * per line, while the rows are still being read from the database.
+     */
+    @GetMapping(value = "/export", produces = NDJSON)
+    public ResponseEntity<StreamingResponseBody> export() {
+        ObjectWriter writer = this.objectMapper.writerFor(SessionDto.class)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        StreamingResponseBody body = out -> this.sessionService.forEachSession(session -> {
+            try {
+                writer.writeValue(out, session);
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        return ResponseEntity.ok().contentType(MediaType.parseMediaType(NDJSON)).body(body);
+    }
+
+    private static String link(String param, String cursor, String replacedParam, String rel) {
+        String uri = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam(replacedParam)
+                .replaceQueryParam(param, cursor)
+                .toUriString();
+        return "<" + uri + ">; rel=\"" + rel + "\"";
     }
 
     @PostMapping()
@@ -59,12 +222,29 @@ public class SessionController {
         return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
     }
 
+    /**
+     * Requires the ETag of the session being replaced in If-Match: 428 when
+     * it is missing, 412 when the session has changed since.
+     */
     @PutMapping("{id}")
-    public ResponseEntity<?> update(@PathVariable("id") String id, @Valid @RequestBody SessionDto sessionDto) {
+    public ResponseEntity<?> update(@PathVariable("id") String id,
+                                    @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                    @Valid @RequestBody SessionDto sessionDto) {
         try {
-            Session session = this.sessionService.update(Long.parseLong(id), this.sessionMapper.toEntity(sessionDto));
+            long sessionId = Long.parseLong(id);
+            if (ifMatch == null || ifMatch.trim().equals("*")) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_REQUIRED).build();
+            }
+            Long expectedVersion = ETags.version(ifMatch, sessionId);
+            if (expectedVersion == null) {
+                return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED).build();
+            }
+
+            Session session = this.sessionService.update(sessionId, expectedVersion, this.sessionMapper.toEntity(sessionDto));
 
-            return ResponseEntity.ok().body(this.sessionMapper.toDto(session));
+            return ResponseEntity.ok()
+                    .eTag(ETags.strong(session.getId(), session.getVersion()))
+                    .body(this.sessionMapper.toDto(session));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
@@ -107,4 +287,45 @@ public class SessionController {
             return ResponseEntity.badRequest().build();
         }
     }
+
+    /**
+     * Queues the user for a full session. Seats freed later are handed to the
+     * waitlist in order by a background promotion, not by this request.
+     */
+    @PostMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> joinWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            Long sessionId = Long.parseLong(id);
+            Long user = Long.parseLong(userId);
+            int position = this.waitlistService.join(sessionId, user);
+
+            return ResponseEntity.ok().body(new WaitlistPosition(sessionId, user, position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> waitlistPosition(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            Long sessionId = Long.parseLong(id);
+            Long user = Long.parseLong(userId);
+            int position = this.waitlistService.position(sessionId, user);
+
+            return ResponseEntity.ok().body(new WaitlistPosition(sessionId, user, position));
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @DeleteMapping("{id}/waitlist/{userId}")
+    public ResponseEntity<?> leaveWaitlist(@PathVariable("id") String id, @PathVariable("userId") String userId) {
+        try {
+            this.waitlistService.leave(Long.parseLong(id), Long.parseLong(userId));
+
+            return ResponseEntity.ok().build();
+        } catch (NumberFormatException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
 }
@@ -1,13 +1,20 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.TeacherSnapshot;
+import com.openclassrooms.starterjwt.util.ETags;
+import com.openclassrooms.starterjwt.util.IdList;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import java.util.List;
+import java.util.Objects;
 
-@CrossOrigin(origins = "*", maxAge = 3600)
+@CrossOrigin(origins = "*", maxAge = 3600, exposedHeaders = {"ETag"})
 @RestController
 @RequestMapping("/api/teacher")
 public class TeacherController {
@@ -22,7 +29,8 @@ public class TeacherController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> findById(@PathVariable("id") String id) {
+    public ResponseEntity<?> findById(@PathVariable("id") String id,
+                                      @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
             Teacher teacher = this.teacherService.findById(Long.valueOf(id));
 
@@ -30,16 +38,41 @@ public class TeacherController {
                 return ResponseEntity.notFound().build();
             }
 
-            return ResponseEntity.ok().body(this.teacherMapper.toDto(teacher));
+            String etag = ETags.weak(teacher.getId(), Objects.hash(teacher.getUpdatedAt(),
+                    teacher.getFirstName(), teacher.getLastName()));
+            return ETags.conditional(ifNoneMatch, etag, () -> this.teacherMapper.toDto(teacher));
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest().build();
         }
     }
 
+    /**
+     * {@code ?ids=} multi-get answered from the snapshot, in request order
+     * with the unknown ids listed apart.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> findByIds(@RequestParam("ids") String ids) {
+        try {
+            MultiGetResult<Teacher> teachers = this.teacherService.findByIds(IdList.parse(ids, IdList.MAX_IDS));
+
+            return ResponseEntity.ok().body(teachers.map(this.teacherMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * The list is answered from the teacher snapshot with the JSON it was
+     * serialized to when it was built: no query and no serialization.
+     */
     @GetMapping()
-    public ResponseEntity<?> findAll() {
-        List<Teacher> teachers = this.teacherService.findAll();
+    public ResponseEntity<?> findAll(@RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        TeacherSnapshot snapshot = this.teacherService.snapshot();
+        String etag = snapshot.getListETag();
 
-        return ResponseEntity.ok().body(this.teacherMapper.toDto(teachers));
+        if (ETags.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).contentType(MediaType.APPLICATION_JSON).body(snapshot.getListJson());
     }
 }
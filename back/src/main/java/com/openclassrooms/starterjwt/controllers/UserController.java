@@ -1,8 +1,10 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.services.UserService;
+import com.openclassrooms.starterjwt.util.IdList;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -40,6 +42,21 @@ public class UserController {
         }
     }
 
+    /**
+     * {@code ?ids=3,1,2}: the users in that order with one query, plus the
+     * ids that match nobody. See {@link IdList} for what is refused.
+     */
+    @GetMapping(params = "ids")
+    public ResponseEntity<?> findByIds(@RequestParam("ids") String ids) {
+        try {
+            MultiGetResult<User> users = this.userService.findByIds(IdList.parse(ids, IdList.MAX_IDS));
+
+            return ResponseEntity.ok().body(users.map(this.userMapper::toDto));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("{id}")
     public ResponseEntity<?> save(@PathVariable("id") String id) {
         try {
@@ -0,0 +1,35 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * Counters of the Hibernate second-level cache since startup, one entry per
+ * region plus the natural-id cache totals.
+ */
+@Value
+public class CacheStatistics {
+    List<Region> regions;
+
+    long naturalIdHits;
+
+    long naturalIdMisses;
+
+    /**
+     * Elements is negative when the provider does not report the size of the
+     * region.
+     */
+    @Value
+    public static class Region {
+        String name;
+
+        long hits;
+
+        long misses;
+
+        long puts;
+
+        long elements;
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Answer of a multi-get: the records found in the order of the requested
+ * ids, and the requested ids that match no record.
+ */
+@Value
+public class MultiGetResult<T> {
+    List<T> items;
+
+    List<Long> missing;
+
+    /**
+     * Orders what one query found by the requested ids, which must be
+     * distinct.
+     */
+    public static <T> MultiGetResult<T> of(Collection<Long> requested, Iterable<T> found, Function<T, Long> idOf) {
+        Map<Long, T> byId = new HashMap<>();
+        for (T item : found) {
+            byId.put(idOf.apply(item), item);
+        }
+
+        List<T> items = new ArrayList<>(requested.size());
+        List<Long> missing = new ArrayList<>();
+        for (Long id : requested) {
+            T item = byId.get(id);
+            if (item == null) {
+                missing.add(id);
+            } else {
+                items.add(item);
+            }
+        }
+        return new MultiGetResult<>(items, missing);
+    }
+
+    public <R> MultiGetResult<R> map(Function<List<T>, List<R>> mapper) {
+        return new MultiGetResult<>(mapper.apply(this.items), this.missing);
+    }
+}
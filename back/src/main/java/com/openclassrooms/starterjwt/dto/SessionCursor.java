@@ -0,0 +1,46 @@
+package com.openclassrooms.starterjwt.dto;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Date;
+
+/**
+ * Position in the session list, ordered by (date, id). Clients only see the
+ * opaque base64url form.
+ */
+@Value
+public class SessionCursor {
+    long dateMillis;
+
+    long id;
+
+    public static SessionCursor of(SessionDto session) {
+        return new SessionCursor(session.getDate().getTime(), session.getId());
+    }
+
+    public static SessionCursor decode(String value) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(value), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(':');
+            if (separator < 0) {
+                throw new BadRequestException();
+            }
+            return new SessionCursor(Long.parseLong(decoded.substring(0, separator)),
+                    Long.parseLong(decoded.substring(separator + 1)));
+        } catch (IllegalArgumentException e) {
+            throw new BadRequestException();
+        }
+    }
+
+    public String encode() {
+        String raw = dateMillis + ":" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public Date getDate() {
+        return new Date(dateMillis);
+    }
+}
@@ -4,6 +4,7 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -31,9 +32,21 @@ public class SessionDto {
     @Size(max = 2500)
     private String description;
 
+    @Min(1)
+    private Integer capacity;
+
+    // Read only, a PUT carries the expected version in If-Match
+    private Long version;
+
     private List<Long> users;
 
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
+
+    // Projection constructor for the JPQL list query, the participant ids are filled in afterwards
+    public SessionDto(Long id, String name, Date date, Long teacher_id, String description,
+                      Integer capacity, Long version, LocalDateTime createdAt, LocalDateTime updatedAt) {
+        this(id, name, date, teacher_id, description, capacity, version, null, createdAt, updatedAt);
+    }
 }
@@ -0,0 +1,21 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.util.Date;
+
+/**
+ * Optional restrictions on the session list; null fields do not filter.
+ */
+@Value
+@Builder
+public class SessionFilter {
+    Date from;
+
+    Date to;
+
+    Long teacherId;
+
+    boolean freeSpotsOnly;
+}
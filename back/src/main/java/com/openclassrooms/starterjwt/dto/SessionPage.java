@@ -0,0 +1,18 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Value;
+
+import java.util.List;
+
+/**
+ * One page of the session list with the cursors of its neighbours, null
+ * when there is no page in that direction.
+ */
+@Value
+public class SessionPage {
+    List<SessionDto> items;
+
+    String nextCursor;
+
+    String previousCursor;
+}
@@ -0,0 +1,52 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+
+/**
+ * Everything the session detail page shows, as seen by one user: the
+ * session with its teacher embedded, how many people attend and whether the
+ * caller is one of them, without the participant list itself.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionView {
+    private Long id;
+
+    private String name;
+
+    private Date date;
+
+    private String description;
+
+    private Integer capacity;
+
+    private Long version;
+
+    private TeacherDto teacher;
+
+    private int participantCount;
+
+    private boolean participating;
+
+    private LocalDateTime createdAt;
+
+    private LocalDateTime updatedAt;
+
+    // Projection constructor for the JPQL view query; the teacher columns are null when there is none
+    public SessionView(Long id, String name, Date date, String description, Integer capacity, int seatsTaken,
+                       Long version, LocalDateTime createdAt, LocalDateTime updatedAt,
+                       Long teacherId, String teacherLastName, String teacherFirstName,
+                       LocalDateTime teacherCreatedAt, LocalDateTime teacherUpdatedAt,
+                       Long callerParticipations) {
+        this(id, name, date, description, capacity, version,
+                teacherId == null ? null
+                        : new TeacherDto(teacherId, teacherLastName, teacherFirstName, teacherCreatedAt, teacherUpdatedAt),
+                seatsTaken, callerParticipations > 0, createdAt, updatedAt);
+    }
+}
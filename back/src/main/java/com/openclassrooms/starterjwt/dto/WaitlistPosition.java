@@ -0,0 +1,16 @@
+package com.openclassrooms.starterjwt.dto;
+
+import lombok.Value;
+
+/**
+ * Place of a user in the waitlist of a session, 1 being the next to get a
+ * seat.
+ */
+@Value
+public class WaitlistPosition {
+    Long sessionId;
+
+    Long userId;
+
+    int position;
+}
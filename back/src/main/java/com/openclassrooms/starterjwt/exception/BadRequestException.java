@@ -5,4 +5,11 @@ import org.springframework.web.bind.annotation.ResponseStatus;
 
 @ResponseStatus(value= HttpStatus.BAD_REQUEST)
 public class BadRequestException extends RuntimeException {
+    public BadRequestException() {
+    }
+
+    // The message is returned to the client in the error body
+    public BadRequestException(String message) {
+        super(message);
+    }
 }
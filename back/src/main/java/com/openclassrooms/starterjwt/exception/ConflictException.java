@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(value= HttpStatus.CONFLICT)
+public class ConflictException extends RuntimeException {
+    // The message is returned to the client in the error body
+    public ConflictException(String message) {
+        super(message);
+    }
+}
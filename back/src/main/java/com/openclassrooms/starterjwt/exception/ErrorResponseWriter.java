@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Writes the JSON error body shared by the security entry point and the
+ * exception handlers. Everything but the request path is encoded once per
+ * status, so an error response costs two array copies and the escaped path.
+ */
+@Component
+public class ErrorResponseWriter {
+    private static final byte[] SUFFIX = "\"}".getBytes(StandardCharsets.UTF_8);
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private final Map<HttpStatus, byte[]> prefixes = new ConcurrentHashMap<>();
+
+    public ErrorResponseWriter() {
+        prefixes.put(HttpStatus.BAD_REQUEST, prefix(HttpStatus.BAD_REQUEST, "Bad request"));
+        prefixes.put(HttpStatus.UNAUTHORIZED,
+                prefix(HttpStatus.UNAUTHORIZED, "Full authentication is required to access this resource"));
+        prefixes.put(HttpStatus.NOT_FOUND, prefix(HttpStatus.NOT_FOUND, "Resource not found"));
+        prefixes.put(HttpStatus.SERVICE_UNAVAILABLE,
+                prefix(HttpStatus.SERVICE_UNAVAILABLE, "Too many requests, please retry later"));
+    }
+
+    public void write(HttpServletResponse response, HttpStatus status, String path) throws IOException {
+        write(response, status, prefixes.computeIfAbsent(status, s -> prefix(s, s.getReasonPhrase())), path);
+    }
+
+    /**
+     * Same body with a message specific to this response, encoded on the spot.
+     */
+    public void write(HttpServletResponse response, HttpStatus status, String message, String path) throws IOException {
+        if (message == null) {
+            write(response, status, path);
+            return;
+        }
+        write(response, status, prefix(status, new String(escape(message), StandardCharsets.UTF_8)), path);
+    }
+
+    private void write(HttpServletResponse response, HttpStatus status, byte[] prefix, String path) throws IOException {
+        byte[] escapedPath = escape(path != null ? path : "");
+
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(prefix.length + escapedPath.length + SUFFIX.length);
+
+        ServletOutputStream out = response.getOutputStream();
+        out.write(prefix);
+        out.write(escapedPath);
+        out.write(SUFFIX);
+        out.flush();
+    }
+
+    private static byte[] prefix(HttpStatus status, String message) {
+        return ("{\"status\":" + status.value()
+                + ",\"error\":\"" + status.getReasonPhrase()
+                + "\",\"message\":\"" + message
+                + "\",\"path\":\"").getBytes(StandardCharsets.UTF_8);
+    }
+
+    static byte[] escape(String value) {
+        boolean plain = true;
+        for (int i = 0; i < value.length() && plain; i++) {
+            char c = value.charAt(i);
+            plain = c >= 0x20 && c < 0x7f && c != '"' && c != '\\';
+        }
+        if (plain) {
+            return value.getBytes(StandardCharsets.US_ASCII);
+        }
+
+        StringBuilder escaped = new StringBuilder(value.length() + 16);
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                escaped.append('\\').append(c);
+            } else if (c < 0x20) {
+                escaped.append("\\u00").append(HEX[c >> 4]).append(HEX[c & 0xf]);
+            } else {
+                escaped.append(c);
+            }
+        }
+        return escaped.toString().getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * Renders the exceptions of this package, and constraint violations, with the
+ * same body as the 401s of the security entry point, bypassing Spring's error
+ * page rendering.
+ */
+@ControllerAdvice
+public class RestExceptionHandler {
+    private final ErrorResponseWriter errorResponseWriter;
+
+    public RestExceptionHandler(ErrorResponseWriter errorResponseWriter) {
+        this.errorResponseWriter = errorResponseWriter;
+    }
+
+    @ExceptionHandler(BadRequestException.class)
+    public void handleBadRequest(BadRequestException e,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, HttpStatus.BAD_REQUEST, e.getMessage(), request.getServletPath());
+    }
+
+    // A unique or foreign key constraint rejected the write, e.g. a duplicate email
+    @ExceptionHandler(DataIntegrityViolationException.class)
+    public void handleConstraintViolation(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, HttpStatus.BAD_REQUEST, request.getServletPath());
+    }
+
+    @ExceptionHandler(NotFoundException.class)
+    public void handleNotFound(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, HttpStatus.NOT_FOUND, request.getServletPath());
+    }
+
+    // The request is valid but the resource cannot accept it in its current state, e.g. a full session
+    @ExceptionHandler(ConflictException.class)
+    public void handleConflict(ConflictException e,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, HttpStatus.CONFLICT, e.getMessage(), request.getServletPath());
+    }
+
+    // The If-Match version of a write no longer matches the stored row
+    @ExceptionHandler(PreconditionFailedException.class)
+    public void handlePreconditionFailed(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        errorResponseWriter.write(response, HttpStatus.PRECONDITION_FAILED, request.getServletPath());
+    }
+
+    @ExceptionHandler(ServiceUnavailableException.class)
+    public void handleServiceUnavailable(ServiceUnavailableException e,
+            HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()));
+        errorResponseWriter.write(response, HttpStatus.SERVICE_UNAVAILABLE, request.getServletPath());
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.springframework.data.domain.Persistable;
+
+import javax.persistence.*;
+
+/**
+ * A row of the PARTICIPATE join table, written directly instead of through
+ * the Session.users collection so that joining or leaving a session touches
+ * one row. Always new when built, so saving it is a plain insert and the
+ * primary key rejects duplicates.
+ */
+@Entity
+@Table(name = "PARTICIPATE")
+@Getter
+@EqualsAndHashCode(of = {"id"})
+@NoArgsConstructor
+@ToString
+public class Participation implements Persistable<ParticipationId> {
+    @EmbeddedId
+    private ParticipationId id;
+
+    @Transient
+    @Getter(AccessLevel.NONE)
+    private boolean isNew = true;
+
+    public Participation(Long sessionId, Long userId) {
+        this.id = new ParticipationId(sessionId, userId);
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+}
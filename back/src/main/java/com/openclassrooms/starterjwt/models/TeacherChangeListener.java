@@ -0,0 +1,26 @@
+package com.openclassrooms.starterjwt.models;
+
+import com.openclassrooms.starterjwt.services.TeacherChangedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * Announces every teacher write made through JPA, whichever repository or
+ * service made it. Instantiated by Hibernate through the Spring bean
+ * container, which injects the publisher.
+ */
+public class TeacherChangeListener {
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    void changed(Teacher teacher) {
+        eventPublisher.publishEvent(new TeacherChangedEvent(teacher.getId()));
+    }
+}
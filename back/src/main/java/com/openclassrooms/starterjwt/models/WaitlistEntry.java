@@ -0,0 +1,47 @@
+package com.openclassrooms.starterjwt.models;
+
+import lombok.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import javax.persistence.*;
+import javax.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * A user waiting for a seat in a full session. The generated id increases
+ * with every insert, so ordering a session's entries by id is first come,
+ * first served; the (session_id, id) index serves that order.
+ */
+@Entity
+@Table(name = "WAITLIST", uniqueConstraints = {
+        @UniqueConstraint(columnNames = {"session_id", "user_id"})
+}, indexes = {
+        @Index(name = "idx_waitlist_session_id", columnList = "session_id, id")
+})
+@EntityListeners(AuditingEntityListener.class)
+@Data
+@EqualsAndHashCode(of = {"id"})
+@NoArgsConstructor
+public class WaitlistEntry {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(name = "session_id")
+    private Long sessionId;
+
+    @NotNull
+    @Column(name = "user_id")
+    private Long userId;
+
+    @CreatedDate
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public WaitlistEntry(Long sessionId, Long userId) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+    }
+}
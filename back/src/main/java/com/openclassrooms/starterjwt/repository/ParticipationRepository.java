@@ -0,0 +1,32 @@
+package com.openclassrooms.starterjwt.repository;
+
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ParticipationRepository extends JpaRepository<Participation, ParticipationId> {
+    @Query("select p.id from Participation p order by p.id.sessionId, p.id.userId")
+    List<ParticipationId> findAllIds();
+
+    @Query("select p.id from Participation p where p.id.sessionId in :sessionIds order by p.id.sessionId, p.id.userId")
+    List<ParticipationId> findIdsBySessionIds(@Param("sessionIds") Collection<Long> sessionIds);
+
+    @Modifying
+    @Query("delete from Participation p where p.id.sessionId = :sessionId and p.id.userId = :userId")
+    int deleteParticipation(@Param("sessionId") Long sessionId, @Param("userId") Long userId);
+
+    @Query("select p.id.sessionId from Participation p where p.id.userId = :userId")
+    List<Long> findSessionIdsByUserId(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("delete from Participation p where p.id.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -1,9 +1,140 @@
 package com.openclassrooms.starterjwt.repository;
 
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionView;
 import com.openclassrooms.starterjwt.models.Session;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.QueryHint;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionRepository  extends JpaRepository<Session, Long> {
+    int EXPORT_FETCH_SIZE = 500;
+
+    interface Seats {
+        Integer getCapacity();
+
+        int getSeatsTaken();
+    }
+
+    String SUMMARY = "select new com.openclassrooms.starterjwt.dto.SessionDto("
+            + "s.id, s.name, s.date, t.id, s.description, s.capacity, s.version, s.createdAt, s.updatedAt) "
+            + "from Session s left join s.teacher t ";
+
+    String FILTERS = "(:from is null or s.date >= :from) "
+            + "and (:to is null or s.date < :to) "
+            + "and (:teacherId is null or t.id = :teacherId) "
+            + "and (:freeSpotsOnly = false or s.capacity is null or s.seatsTaken < s.capacity) ";
+
+    @Query(SUMMARY + "order by s.id")
+    List<SessionDto> findAllSummaries();
+
+    /**
+     * Takes a seat and bumps the version in one conditional statement, so a
+     * PUT prepared from the previous roster fails its If-Match check. The
+     * row lock serialises concurrent reservations, and the WHERE clause sees
+     * the count left by the previous holder, so the session is never
+     * overbooked. The lock also orders participation writes before they touch
+     * PARTICIPATE. Returns 0 when the session is full or does not exist.
+     */
+    @Modifying
+    @Query("update Session s set s.seatsTaken = s.seatsTaken + 1, s.version = s.version + 1 "
+            + "where s.id = :id and (s.capacity is null or s.seatsTaken < s.capacity)")
+    int reserveSeat(@Param("id") Long id);
+
+    /**
+     * Gives a seat back and bumps the version; the caller rolls back when no
+     * participation was actually removed. Returns 0 when the session does not
+     * exist.
+     */
+    @Modifying
+    @Query("update Session s set s.seatsTaken = s.seatsTaken - 1, s.version = s.version + 1 "
+            + "where s.id = :id")
+    int releaseSeat(@Param("id") Long id);
+
+    /**
+     * Gives back the seats of a user about to be deleted, before their
+     * PARTICIPATE rows are removed, and bumps the version of those sessions.
+     * Returns the number of sessions updated.
+     */
+    @Modifying
+    @Query("update Session s set s.seatsTaken = s.seatsTaken - 1, s.version = s.version + 1 "
+            + "where exists (select p from Participation p where p.id.sessionId = s.id and p.id.userId = :userId)")
+    int releaseSeatsOf(@Param("userId") Long userId);
+
+    /**
+     * Realigns the seat counter of every session with its PARTICIPATE rows,
+     * for rows written before the counter existed. Returns the number of
+     * sessions corrected.
+     */
+    @Transactional
+    @Modifying
+    @Query("update Session s set s.seatsTaken = "
+            + "(select count(p) from Participation p where p.id.sessionId = s.id) "
+            + "where s.seatsTaken <> (select count(p) from Participation p where p.id.sessionId = s.id)")
+    int recountSeats();
+
+    @Query("select s.capacity as capacity, s.seatsTaken as seatsTaken from Session s where s.id = :id")
+    Optional<Seats> findSeatsById(@Param("id") Long id);
+
+    @Query(SUMMARY + "where s.id = :id")
+    Optional<SessionDto> findSummaryById(@Param("id") Long id);
+
+    @Query(SUMMARY + "where s.id in :ids")
+    List<SessionDto> findSummariesByIds(@Param("ids") Collection<Long> ids);
+
+    /**
+     * The detail page of a session for one user in a single statement: the
+     * teacher is joined, the attendance is the seat counter and the caller's
+     * participation is a primary key lookup in PARTICIPATE.
+     */
+    @Query("select new com.openclassrooms.starterjwt.dto.SessionView("
+            + "s.id, s.name, s.date, s.description, s.capacity, s.seatsTaken, s.version, s.createdAt, s.updatedAt, "
+            + "t.id, t.lastName, t.firstName, t.createdAt, t.updatedAt, "
+            + "(select count(p) from Participation p where p.id.sessionId = s.id and p.id.userId = :userId)) "
+            + "from Session s left join s.teacher t where s.id = :id")
+    Optional<SessionView> findViewById(@Param("id") Long id, @Param("userId") Long userId);
+
+    /**
+     * Cursor over every session as a DTO without participants, read in
+     * fetch-size batches. Must be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "" + EXPORT_FETCH_SIZE))
+    @Query(SUMMARY + "order by s.id")
+    Stream<SessionDto> streamAllSummaries();
+
+    /**
+     * Sessions strictly after the (date, id) position in ascending order, or
+     * from the start when the position is null. Walks the (date, id) index.
+     */
+    @Query(SUMMARY + "where (:date is null or s.date > :date or (s.date = :date and s.id > :id)) and "
+            + FILTERS + "order by s.date asc, s.id asc")
+    List<SessionDto> findSummariesAfter(@Param("date") Date date, @Param("id") Long id,
+                                        @Param("from") Date from, @Param("to") Date to,
+                                        @Param("teacherId") Long teacherId,
+                                        @Param("freeSpotsOnly") boolean freeSpotsOnly,
+                                        Pageable pageable);
+
+    /**
+     * Sessions strictly before the (date, id) position, nearest first.
+     */
+    @Query(SUMMARY + "where (s.date < :date or (s.date = :date and s.id < :id)) and "
+            + FILTERS + "order by s.date desc, s.id desc")
+    List<SessionDto> findSummariesBefore(@Param("date") Date date, @Param("id") Long id,
+                                         @Param("from") Date from, @Param("to") Date to,
+                                         @Param("teacherId") Long teacherId,
+                                         @Param("freeSpotsOnly") boolean freeSpotsOnly,
+                                         Pageable pageable);
 }
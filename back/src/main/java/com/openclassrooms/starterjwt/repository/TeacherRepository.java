@@ -2,8 +2,23 @@ package com.openclassrooms.starterjwt.repository;
 
 import com.openclassrooms.starterjwt.models.Teacher;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+
 @Repository
 public interface TeacherRepository  extends JpaRepository<Teacher, Long> {
+    interface ListVersion {
+        long getCount();
+
+        Long getMaxId();
+
+        LocalDateTime getLastUpdate();
+    }
+
+    // Changes whenever a teacher is added, removed or updated, without reading the rows
+    // Never query-cached: it must see writes made by other instances and SQL scripts
+    @Query("select count(t) as count, max(t.id) as maxId, max(t.updatedAt) as lastUpdate from Teacher t")
+    ListVersion findListVersion();
 }
@@ -1,15 +1,21 @@
 package com.openclassrooms.starterjwt.repository;
 
-import java.util.Optional;
+import java.util.stream.Stream;
+
+import javax.persistence.QueryHint;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.openclassrooms.starterjwt.models.User;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
-  Optional<User> findByEmail(String email);
-
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
   Boolean existsByEmail(String email); 
+
+  @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "1000"))
+  @Query("select u.email from User u")
+  Stream<String> streamAllEmails();
 }
@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Optional;
+
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.User;
+
+public interface UserRepositoryCustom {
+    @Transactional(readOnly = true)
+    Optional<User> findByEmail(String email);
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.repository;
+
+import java.util.Optional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.Session;
+
+import com.openclassrooms.starterjwt.models.User;
+
+/**
+ * Looks users up by their natural id when the second-level cache is on, so
+ * that the email resolves to an id in the natural-id region and the user in
+ * the entity region without a query. Without the cache a natural-id load
+ * costs two queries, so the plain query is kept.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public Optional<User> findByEmail(String email) {
+        Session session = this.entityManager.unwrap(Session.class);
+
+        if (!session.getSessionFactory().getSessionFactoryOptions().isSecondLevelCacheEnabled()) {
+            return this.entityManager.createQuery("select u from User u where u.email = :email", User.class)
+                    .setParameter("email", email)
+                    .getResultStream()
+                    .findFirst();
+        }
+        return session.bySimpleNaturalId(User.class).loadOptional(email);
+    }
+}
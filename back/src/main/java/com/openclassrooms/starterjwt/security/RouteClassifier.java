@@ -0,0 +1,29 @@
+package com.openclassrooms.starterjwt.security;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.http.HttpMethod;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.security.web.util.matcher.OrRequestMatcher;
+import org.springframework.security.web.util.matcher.RequestMatcher;
+
+/**
+ * Single place deciding which requests need no authentication. The matchers
+ * are compiled once and shared by the authorization rules and the JWT filter,
+ * so the filter can skip token work for exactly the routes that are permitted.
+ */
+public final class RouteClassifier {
+  public static final RequestMatcher PUBLIC_ROUTES = new OrRequestMatcher(
+      new AntPathRequestMatcher("/**", HttpMethod.OPTIONS.name()),
+      new AntPathRequestMatcher("/api/auth/login"),
+      new AntPathRequestMatcher("/api/auth/register"),
+      new AntPathRequestMatcher("/api/auth/refresh"),
+      new AntPathRequestMatcher("/actuator/health/**"));
+
+  private RouteClassifier() {
+  }
+
+  public static boolean isPublic(HttpServletRequest request) {
+    return PUBLIC_ROUTES.matches(request);
+  }
+}
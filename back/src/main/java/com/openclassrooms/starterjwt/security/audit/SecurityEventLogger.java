@@ -0,0 +1,153 @@
+package com.openclassrooms.starterjwt.security.audit;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.security.jwt.JwtVerification;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Sink for authentication failures. Only the first few events of each
+ * category are logged as they happen in every window; the rest are counted
+ * on striped counters and reported in a periodic summary together with one
+ * sampled example, so a client retrying with a stale token cannot flood the
+ * logs.
+ */
+@Component
+public class SecurityEventLogger {
+  private static final Logger logger = LoggerFactory.getLogger(SecurityEventLogger.class);
+
+  public enum Category {
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY,
+    AUTHENTICATION_ERROR,
+    UNAUTHORIZED;
+
+    public static Category of(JwtVerification.Status status) {
+      switch (status) {
+        case INVALID_SIGNATURE:
+          return INVALID_SIGNATURE;
+        case MALFORMED:
+          return MALFORMED;
+        case EXPIRED:
+          return EXPIRED;
+        case UNSUPPORTED:
+          return UNSUPPORTED;
+        case EMPTY:
+          return EMPTY;
+        default:
+          throw new IllegalArgumentException("Not a failure: " + status);
+      }
+    }
+  }
+
+  private static final class CategoryStats {
+    private final LongAdder total = new LongAdder();
+
+    private final LongAdder window = new LongAdder();
+
+    private final AtomicInteger loggedInWindow = new AtomicInteger();
+
+    private final AtomicReference<String> sample = new AtomicReference<>();
+  }
+
+  private final Map<Category, CategoryStats> stats = new EnumMap<>(Category.class);
+
+  private final int immediatePerWindow;
+
+  private final long warnThreshold;
+
+  @Autowired
+  public SecurityEventLogger(@Value("${oc.app.securityLogImmediatePerWindow:5}") int immediatePerWindow,
+      @Value("${oc.app.securityLogWarnThreshold:100}") long warnThreshold,
+      MeterRegistry meterRegistry) {
+    this.immediatePerWindow = immediatePerWindow;
+    this.warnThreshold = warnThreshold;
+
+    for (Category category : Category.values()) {
+      CategoryStats categoryStats = new CategoryStats();
+      stats.put(category, categoryStats);
+      FunctionCounter.builder("auth.security.events", categoryStats.total, LongAdder::sum)
+          .description("Authentication failures by category")
+          .tag("category", category.name().toLowerCase())
+          .register(meterRegistry);
+    }
+  }
+
+  public void record(Category category, String detail) {
+    record(category, detail, null);
+  }
+
+  public void record(Category category, String detail, Throwable cause) {
+    CategoryStats categoryStats = stats.get(category);
+    categoryStats.total.increment();
+    categoryStats.window.increment();
+
+    if (categoryStats.loggedInWindow.get() < immediatePerWindow
+        && categoryStats.loggedInWindow.incrementAndGet() <= immediatePerWindow) {
+      logger.warn("Security event {}: {}", category, detail, cause);
+    } else if (categoryStats.sample.get() == null) {
+      categoryStats.sample.compareAndSet(null, detail);
+    }
+  }
+
+  public long total(Category category) {
+    return stats.get(category).total.sum();
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.securityLogSummaryMs:60000}")
+  public void logSummary() {
+    summarize();
+  }
+
+  /**
+   * Logs and resets the counts of the current window.
+   *
+   * @return the logged summary, or null when nothing happened in the window
+   */
+  String summarize() {
+    StringBuilder summary = new StringBuilder();
+    boolean aboveThreshold = false;
+
+    for (Map.Entry<Category, CategoryStats> entry : stats.entrySet()) {
+      CategoryStats categoryStats = entry.getValue();
+      long count = categoryStats.window.sumThenReset();
+      String sample = categoryStats.sample.getAndSet(null);
+      categoryStats.loggedInWindow.set(0);
+      if (count == 0) {
+        continue;
+      }
+
+      aboveThreshold |= count >= warnThreshold;
+      summary.append(summary.length() == 0 ? "" : ", ").append(entry.getKey()).append('=').append(count);
+      if (sample != null) {
+        summary.append(" (e.g. ").append(sample).append(')');
+      }
+    }
+
+    if (summary.length() == 0) {
+      return null;
+    }
+    if (aboveThreshold) {
+      logger.warn("Security events since last summary: {}", summary);
+    } else {
+      logger.info("Security events since last summary: {}", summary);
+    }
+    return summary.toString();
+  }
+}
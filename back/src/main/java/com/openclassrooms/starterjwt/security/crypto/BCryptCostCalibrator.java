@@ -0,0 +1,63 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.stereotype.Component;
+
+/**
+ * Picks the bcrypt work factor for this host from a per-hash latency budget.
+ * A few hashes are timed at a cheap probe cost and extrapolated, since each
+ * additional cost step doubles the work.
+ */
+@Component
+public class BCryptCostCalibrator {
+  private static final Logger logger = LoggerFactory.getLogger(BCryptCostCalibrator.class);
+
+  private static final int PROBE_STRENGTH = 6;
+
+  private static final int PROBE_ROUNDS = 5;
+
+  private final int strength;
+
+  public BCryptCostCalibrator(@Value("${oc.app.bcryptStrength:0}") int fixedStrength,
+      @Value("${oc.app.bcryptTargetMillis:100}") long targetMillis,
+      @Value("${oc.app.bcryptMinStrength:10}") int minStrength,
+      @Value("${oc.app.bcryptMaxStrength:14}") int maxStrength) {
+    if (fixedStrength > 0) {
+      this.strength = fixedStrength;
+    } else {
+      this.strength = calibrate(targetMillis, minStrength, maxStrength);
+    }
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  private static int calibrate(long targetMillis, int minStrength, int maxStrength) {
+    String salt = BCrypt.gensalt(PROBE_STRENGTH);
+    long probeNanos = Long.MAX_VALUE;
+
+    // First rounds warm up the JIT, the fastest one is the least noisy sample.
+    for (int i = 0; i < PROBE_ROUNDS; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw("calibration", salt);
+      probeNanos = Math.min(probeNanos, System.nanoTime() - start);
+    }
+
+    int chosen = minStrength;
+    for (int candidate = minStrength; candidate <= maxStrength; candidate++) {
+      double estimatedMillis = probeNanos * Math.pow(2, candidate - PROBE_STRENGTH) / 1_000_000d;
+      if (estimatedMillis > targetMillis) {
+        break;
+      }
+      chosen = candidate;
+    }
+
+    logger.info("Calibrated bcrypt strength to {} for a {} ms budget ({} us per hash at strength {})",
+        chosen, targetMillis, probeNanos / 1000, PROBE_STRENGTH);
+    return chosen;
+  }
+}
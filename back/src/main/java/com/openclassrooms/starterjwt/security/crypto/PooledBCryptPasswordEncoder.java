@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose hashing and matching run on the
+ * {@link PasswordHashingExecutor} instead of the calling request thread.
+ */
+public class PooledBCryptPasswordEncoder extends BCryptPasswordEncoder {
+  private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[aby]?\\$(\\d\\d)\\$");
+
+  private final PasswordHashingExecutor executor;
+
+  private final int strength;
+
+  public PooledBCryptPasswordEncoder(PasswordHashingExecutor executor, int strength) {
+    super(strength);
+    this.executor = executor;
+    this.strength = strength;
+  }
+
+  @Override
+  public String encode(CharSequence rawPassword) {
+    return executor.execute(() -> super.encode(rawPassword));
+  }
+
+  @Override
+  public boolean matches(CharSequence rawPassword, String encodedPassword) {
+    return executor.execute(() -> super.matches(rawPassword, encodedPassword));
+  }
+
+  /**
+   * A stored hash needs rehashing whenever its cost differs from the
+   * calibrated strength, in either direction.
+   */
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    if (encodedPassword == null) {
+      return false;
+    }
+
+    Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+    return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+  }
+}
@@ -0,0 +1,34 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hashes bearer tokens before they are stored or used as keys, so that
+ * neither the database nor the in-memory caches retain the credentials.
+ * Tokens are long random or signed values, so a plain SHA-256 is enough
+ * where passwords would need bcrypt.
+ */
+public final class TokenHashes {
+  private TokenHashes() {
+  }
+
+  /**
+   * @return the SHA-256 digest of the UTF-8 token, as 64 lowercase hex digits
+   */
+  public static String sha256Hex(String token) {
+    byte[] digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+
+    StringBuilder hex = new StringBuilder(digest.length * 2);
+    for (byte b : digest) {
+      hex.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+    }
+    return hex.toString();
+  }
+}
@@ -7,9 +7,8 @@ import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
@@ -17,6 +16,8 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
+import com.openclassrooms.starterjwt.security.RouteClassifier;
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
@@ -26,17 +27,32 @@ public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private UserDetailsServiceImpl userDetailsService;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private TokenRevocationList tokenRevocationList;
+
+  @Autowired
+  private SecurityEventLogger securityEventLogger;
+
+  // When true the principal is rebuilt from the token claims; logout and account
+  // deletion go through the revocation list. When false, every request reloads
+  // the principal from the database.
+  @Value("${oc.app.jwtStatelessPrincipal:false}")
+  private boolean statelessPrincipal;
+
+  // Permitted routes never look at the principal, so a token sent along is not even parsed.
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return RouteClassifier.isPublic(request);
+  }
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+      JwtVerification verification = jwt != null ? jwtUtils.verifyJwtToken(jwt) : null;
+      if (verification != null && verification.isValid() && !tokenRevocationList.isRevoked(verification)) {
+        UserDetails userDetails = loadUserDetails(verification);
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -47,12 +63,21 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      securityEventLogger.record(SecurityEventLogger.Category.AUTHENTICATION_ERROR,
+          "Cannot set user authentication: " + e.getMessage(), e);
     }
 
     filterChain.doFilter(request, response);
   }
 
+  private UserDetails loadUserDetails(JwtVerification verification) {
+    if (statelessPrincipal && verification.getPrincipal() != null) {
+      return verification.getPrincipal();
+    }
+
+    return userDetailsService.loadUserByUsername(verification.getUsername());
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -1,20 +1,24 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import java.util.Date;
+import java.util.UUID;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 
 import io.jsonwebtoken.*;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  static final String CLAIM_USER_ID = "uid";
+  static final String CLAIM_FIRST_NAME = "fn";
+  static final String CLAIM_LAST_NAME = "ln";
+  static final String CLAIM_ADMIN = "adm";
 
   @Value("${oc.app.jwtSecret}")
   private String jwtSecret;
@@ -22,12 +26,24 @@ public class JwtUtils {
   @Value("${oc.app.jwtExpirationMs}")
   private int jwtExpirationMs;
 
-  public String generateJwtToken(Authentication authentication) {
+  @Autowired
+  private VerifiedTokenCache verifiedTokenCache;
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+  @Autowired
+  private SecurityEventLogger securityEventLogger;
 
+  public String generateJwtToken(Authentication authentication) {
+    return generateTokenFromUserDetails((UserDetailsImpl) authentication.getPrincipal());
+  }
+
+  public String generateTokenFromUserDetails(UserDetailsImpl userPrincipal) {
     return Jwts.builder()
+        .setId(UUID.randomUUID().toString())
         .setSubject((userPrincipal.getUsername()))
+        .claim(CLAIM_USER_ID, userPrincipal.getId())
+        .claim(CLAIM_FIRST_NAME, userPrincipal.getFirstName())
+        .claim(CLAIM_LAST_NAME, userPrincipal.getLastName())
+        .claim(CLAIM_ADMIN, Boolean.TRUE.equals(userPrincipal.getAdmin()))
         .setIssuedAt(new Date())
         .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
         .signWith(SignatureAlgorithm.HS512, jwtSecret)
@@ -35,25 +51,74 @@ public class JwtUtils {
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return verifyJwtToken(token).getUsername();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return verifyJwtToken(authToken).isValid();
+  }
+
+  /**
+   * Verifies the signature and expiry of the token with a single parse, and
+   * remembers valid tokens until they expire so that repeated requests with
+   * the same token skip the HMAC check.
+   */
+  public JwtVerification verifyJwtToken(String authToken) {
+    if (authToken != null) {
+      JwtVerification cached = verifiedTokenCache.get(authToken);
+      if (cached != null) {
+        return cached;
+      }
+    }
+
+    JwtVerification verification = parseJwtToken(authToken);
+    if (verification.isValid()) {
+      verifiedTokenCache.put(authToken, verification);
+    }
+
+    return verification;
+  }
+
+  private JwtVerification parseJwtToken(String authToken) {
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      Claims claims = Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken).getBody();
+      long issuedAtMillis = claims.getIssuedAt() != null ? claims.getIssuedAt().getTime() : 0L;
+      long expiresAtMillis = claims.getExpiration() != null ? claims.getExpiration().getTime() : Long.MAX_VALUE;
+
+      return JwtVerification.valid(claims.getSubject(), toUserDetails(claims),
+          claims.getId(), issuedAtMillis, expiresAtMillis);
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      return invalid(JwtVerification.Status.INVALID_SIGNATURE, e);
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      return invalid(JwtVerification.Status.MALFORMED, e);
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      return invalid(JwtVerification.Status.EXPIRED, e);
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      return invalid(JwtVerification.Status.UNSUPPORTED, e);
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      return invalid(JwtVerification.Status.EMPTY, e);
+    }
+  }
+
+  private JwtVerification invalid(JwtVerification.Status status, RuntimeException e) {
+    securityEventLogger.record(SecurityEventLogger.Category.of(status), e.getMessage());
+    return JwtVerification.invalid(status);
+  }
+
+  // Tokens issued before the principal claims were added carry only the subject.
+  private UserDetailsImpl toUserDetails(Claims claims) {
+    Number id = claims.get(CLAIM_USER_ID, Number.class);
+    if (id == null) {
+      return null;
     }
 
-    return false;
+    return UserDetailsImpl
+            .builder()
+            .id(id.longValue())
+            .username(claims.getSubject())
+            .firstName(claims.get(CLAIM_FIRST_NAME, String.class))
+            .lastName(claims.get(CLAIM_LAST_NAME, String.class))
+            .admin(Boolean.TRUE.equals(claims.get(CLAIM_ADMIN, Boolean.class)))
+            .build();
   }
 }
@@ -0,0 +1,88 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+/**
+ * Outcome of a single parse of a JWT: either the verified subject and
+ * principal, or the reason the token was rejected.
+ */
+public final class JwtVerification {
+  public enum Status {
+    VALID,
+    INVALID_SIGNATURE,
+    MALFORMED,
+    EXPIRED,
+    UNSUPPORTED,
+    EMPTY
+  }
+
+  private final Status status;
+
+  private final String username;
+
+  private final UserDetailsImpl principal;
+
+  private final String tokenId;
+
+  private final long issuedAtMillis;
+
+  private final long expiresAtMillis;
+
+  private JwtVerification(Status status, String username, UserDetailsImpl principal,
+      String tokenId, long issuedAtMillis, long expiresAtMillis) {
+    this.status = status;
+    this.username = username;
+    this.principal = principal;
+    this.tokenId = tokenId;
+    this.issuedAtMillis = issuedAtMillis;
+    this.expiresAtMillis = expiresAtMillis;
+  }
+
+  public static JwtVerification valid(String username, UserDetailsImpl principal, long expiresAtMillis) {
+    return valid(username, principal, null, 0L, expiresAtMillis);
+  }
+
+  public static JwtVerification valid(String username, UserDetailsImpl principal,
+      String tokenId, long issuedAtMillis, long expiresAtMillis) {
+    return new JwtVerification(Status.VALID, username, principal, tokenId, issuedAtMillis, expiresAtMillis);
+  }
+
+  public static JwtVerification invalid(Status status) {
+    return new JwtVerification(status, null, null, null, 0L, 0L);
+  }
+
+  public boolean isValid() {
+    return status == Status.VALID;
+  }
+
+  public Status getStatus() {
+    return status;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  /**
+   * Principal rebuilt from the token claims, or null for tokens issued
+   * before the claims were added.
+   */
+  public UserDetailsImpl getPrincipal() {
+    return principal;
+  }
+
+  /**
+   * The jti claim, used to revoke this single token; null for older tokens.
+   */
+  public String getTokenId() {
+    return tokenId;
+  }
+
+  public long getIssuedAtMillis() {
+    return issuedAtMillis;
+  }
+
+  public long getExpiresAtMillis() {
+    return expiresAtMillis;
+  }
+}
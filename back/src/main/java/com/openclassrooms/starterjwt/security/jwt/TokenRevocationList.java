@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.openclassrooms.starterjwt.util.BloomFilter;
+
+/**
+ * In-memory list of revoked access tokens, checked on every authenticated
+ * request. A Bloom filter answers the common "never revoked" case without
+ * touching the exact maps, which are only consulted on a filter hit.
+ *
+ * Single tokens are revoked by jti until their own expiry; users are revoked
+ * as a whole (account deletion) for every token issued up to the revocation,
+ * which is remembered for one access token lifetime.
+ */
+@Component
+public class TokenRevocationList {
+  private static final double FALSE_POSITIVE_RATE = 0.01;
+
+  private final Map<String, Long> revokedTokens = new ConcurrentHashMap<>();
+
+  private final Map<Long, Long> revokedUsers = new ConcurrentHashMap<>();
+
+  private final long expectedRevocations;
+
+  private final long accessTokenTtlMillis;
+
+  private final LongSupplier clock;
+
+  private volatile BloomFilter filter;
+
+  @Autowired
+  public TokenRevocationList(@Value("${oc.app.jwtRevocationExpectedSize:10000}") long expectedRevocations,
+      @Value("${oc.app.jwtExpirationMs}") long accessTokenTtlMillis) {
+    this(expectedRevocations, accessTokenTtlMillis, System::currentTimeMillis);
+  }
+
+  TokenRevocationList(long expectedRevocations, long accessTokenTtlMillis, LongSupplier clock) {
+    this.expectedRevocations = expectedRevocations;
+    this.accessTokenTtlMillis = accessTokenTtlMillis;
+    this.clock = clock;
+    this.filter = new BloomFilter(expectedRevocations, FALSE_POSITIVE_RATE);
+  }
+
+  public synchronized void revokeToken(String tokenId, long expiresAtMillis) {
+    if (tokenId == null || expiresAtMillis <= clock.getAsLong()) {
+      return;
+    }
+
+    revokedTokens.put(tokenId, expiresAtMillis);
+    filter.add(tokenKey(tokenId));
+  }
+
+  public synchronized void revokeUser(Long userId) {
+    revokedUsers.merge(userId, clock.getAsLong(), Math::max);
+    filter.add(userKey(userId));
+  }
+
+  public boolean isRevoked(JwtVerification verification) {
+    String tokenId = verification.getTokenId();
+    Long userId = verification.getPrincipal() != null ? verification.getPrincipal().getId() : null;
+
+    BloomFilter current = filter;
+    boolean tokenCandidate = tokenId != null && current.mightContain(tokenKey(tokenId));
+    boolean userCandidate = userId != null && current.mightContain(userKey(userId));
+    if (!tokenCandidate && !userCandidate) {
+      return false;
+    }
+
+    if (tokenCandidate && revokedTokens.containsKey(tokenId)) {
+      return true;
+    }
+
+    Long revokedAt = userCandidate ? revokedUsers.get(userId) : null;
+    // iat is truncated to the second, so tokens issued just after the revocation may be rejected too
+    return revokedAt != null && verification.getIssuedAtMillis() <= revokedAt;
+  }
+
+  public int size() {
+    return revokedTokens.size() + revokedUsers.size();
+  }
+
+  /**
+   * Drops entries whose tokens have expired anyway and rebuilds the filter,
+   * since a Bloom filter cannot forget keys on its own.
+   */
+  @Scheduled(fixedDelayString = "${oc.app.jwtRevocationSweepMs:60000}")
+  public synchronized void purgeExpired() {
+    long now = clock.getAsLong();
+    revokedTokens.values().removeIf(expiresAt -> expiresAt <= now);
+    revokedUsers.values().removeIf(revokedAt -> revokedAt + accessTokenTtlMillis <= now);
+
+    BloomFilter rebuilt = new BloomFilter(Math.max(expectedRevocations, 2L * size()), FALSE_POSITIVE_RATE);
+    revokedTokens.keySet().forEach(tokenId -> rebuilt.add(tokenKey(tokenId)));
+    revokedUsers.keySet().forEach(userId -> rebuilt.add(userKey(userId)));
+    filter = rebuilt;
+  }
+
+  private static String tokenKey(String tokenId) {
+    return "j:" + tokenId;
+  }
+
+  private static String userKey(Long userId) {
+    return "u:" + userId;
+  }
+}
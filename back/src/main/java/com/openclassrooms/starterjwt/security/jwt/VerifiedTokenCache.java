@@ -0,0 +1,58 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.openclassrooms.starterjwt.security.crypto.TokenHashes;
+
+/**
+ * Bounded cache of already verified tokens. Entries are keyed by a SHA-256
+ * digest of the raw token, so the cache never retains bearer credentials,
+ * and each entry expires at the token's own exp claim.
+ */
+@Component
+public class VerifiedTokenCache {
+  private final Cache<String, JwtVerification> cache;
+
+  public VerifiedTokenCache(@Value("${oc.app.jwtCacheMaxSize:10000}") long maximumSize) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .expireAfter(new Expiry<String, JwtVerification>() {
+          @Override
+          public long expireAfterCreate(String key, JwtVerification value, long currentTime) {
+            long remainingMillis = value.getExpiresAtMillis() - System.currentTimeMillis();
+            return TimeUnit.MILLISECONDS.toNanos(Math.max(remainingMillis, 0L));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, JwtVerification value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, JwtVerification value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .build();
+  }
+
+  public JwtVerification get(String token) {
+    return cache.getIfPresent(TokenHashes.sha256Hex(token));
+  }
+
+  public void put(String token, JwtVerification verification) {
+    if (verification.isValid()) {
+      cache.put(TokenHashes.sha256Hex(token), verification);
+    }
+  }
+
+  public long size() {
+    return cache.estimatedSize();
+  }
+}
@@ -0,0 +1,87 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.crypto.TokenHashes;
+
+/**
+ * Issues opaque, single-use refresh tokens. Only their SHA-256 is persisted;
+ * each successful refresh consumes the presented token so that a new one
+ * has to be handed out with the new access token.
+ */
+@Service
+public class RefreshTokenService {
+  private static final int TOKEN_BYTES = 32;
+
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  private final RefreshTokenRepository refreshTokenRepository;
+
+  private final long refreshExpirationMs;
+
+  public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+      @Value("${oc.app.jwtRefreshExpirationMs}") long refreshExpirationMs) {
+    this.refreshTokenRepository = refreshTokenRepository;
+    this.refreshExpirationMs = refreshExpirationMs;
+  }
+
+  @Transactional
+  public String create(User user) {
+    byte[] bytes = new byte[TOKEN_BYTES];
+    secureRandom.nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+    refreshTokenRepository.save(RefreshToken.builder()
+        .tokenHash(TokenHashes.sha256Hex(token))
+        .user(user)
+        .expiryDate(Instant.now().plusMillis(refreshExpirationMs))
+        .build());
+
+    return token;
+  }
+
+  /**
+   * Consumes the token and returns its owner, or empty when the token is
+   * unknown, already used or expired.
+   */
+  @Transactional
+  public Optional<User> consume(String token) {
+    if (token == null) {
+      return Optional.empty();
+    }
+
+    Optional<RefreshToken> refreshToken = refreshTokenRepository.findByTokenHash(TokenHashes.sha256Hex(token));
+    if (!refreshToken.isPresent()) {
+      return Optional.empty();
+    }
+
+    if (refreshTokenRepository.removeById(refreshToken.get().getId()) == 0
+        || refreshToken.get().getExpiryDate().isBefore(Instant.now())) {
+      return Optional.empty();
+    }
+
+    return Optional.of(refreshToken.get().getUser());
+  }
+
+  @Transactional
+  public int revokeAll(Long userId) {
+    return refreshTokenRepository.deleteByUserId(userId);
+  }
+
+  @Transactional
+  @Scheduled(fixedDelayString = "${oc.app.jwtRefreshSweepMs:3600000}")
+  public void purgeExpired() {
+    refreshTokenRepository.deleteExpired(Instant.now());
+  }
+}
@@ -0,0 +1,94 @@
+package com.openclassrooms.starterjwt.security.throttle;
+
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Rate limits login attempts per account and per client address, so that a
+ * credential-stuffing burst is turned away before any user lookup or bcrypt
+ * check is spent on it.
+ */
+@Component
+public class LoginThrottle {
+  private final TokenBucketLimiter emailLimiter;
+
+  private final TokenBucketLimiter addressLimiter;
+
+  private final Counter emailRejections;
+
+  private final Counter addressRejections;
+
+  @Autowired
+  public LoginThrottle(@Value("${oc.app.loginEmailCapacity:5}") int emailCapacity,
+      @Value("${oc.app.loginEmailRefillPerMinute:5}") double emailRefillPerMinute,
+      @Value("${oc.app.loginAddressCapacity:20}") int addressCapacity,
+      @Value("${oc.app.loginAddressRefillPerMinute:20}") double addressRefillPerMinute,
+      @Value("${oc.app.loginBucketIdleMs:600000}") long idleMillis,
+      MeterRegistry meterRegistry) {
+    this(new TokenBucketLimiter(emailCapacity, emailRefillPerMinute, idleMillis),
+        new TokenBucketLimiter(addressCapacity, addressRefillPerMinute, idleMillis),
+        meterRegistry);
+  }
+
+  LoginThrottle(TokenBucketLimiter emailLimiter, TokenBucketLimiter addressLimiter, MeterRegistry meterRegistry) {
+    this.emailLimiter = emailLimiter;
+    this.addressLimiter = addressLimiter;
+
+    this.emailRejections = Counter.builder("auth.login.throttled")
+        .description("Login attempts rejected by the rate limiter")
+        .tag("key", "email")
+        .register(meterRegistry);
+    this.addressRejections = Counter.builder("auth.login.throttled")
+        .description("Login attempts rejected by the rate limiter")
+        .tag("key", "address")
+        .register(meterRegistry);
+    Gauge.builder("auth.login.buckets", emailLimiter, TokenBucketLimiter::size)
+        .tag("key", "email")
+        .register(meterRegistry);
+    Gauge.builder("auth.login.buckets", addressLimiter, TokenBucketLimiter::size)
+        .tag("key", "address")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return 0 when the attempt may proceed, otherwise the seconds to wait before retrying
+   */
+  public long tryAcquire(String email, String remoteAddress) {
+    if (remoteAddress != null) {
+      long waitNanos = addressLimiter.tryAcquire(remoteAddress);
+      if (waitNanos > 0) {
+        addressRejections.increment();
+        return toRetryAfterSeconds(waitNanos);
+      }
+    }
+
+    if (email != null) {
+      long waitNanos = emailLimiter.tryAcquire(email.trim().toLowerCase(Locale.ROOT));
+      if (waitNanos > 0) {
+        emailRejections.increment();
+        return toRetryAfterSeconds(waitNanos);
+      }
+    }
+
+    return 0L;
+  }
+
+  @Scheduled(fixedDelayString = "${oc.app.loginBucketSweepMs:60000}")
+  public void evictIdleBuckets() {
+    emailLimiter.evictIdle();
+    addressLimiter.evictIdle();
+  }
+
+  private static long toRetryAfterSeconds(long waitNanos) {
+    return Math.max(1L, (long) Math.ceil((double) waitNanos / TimeUnit.SECONDS.toNanos(1)));
+  }
+}
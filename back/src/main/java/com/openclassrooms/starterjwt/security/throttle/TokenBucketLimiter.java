@@ -0,0 +1,92 @@
+package com.openclassrooms.starterjwt.security.throttle;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Token buckets keyed by an arbitrary string. Each key owns its bucket and
+ * its monitor, so callers only contend when they hit the same key.
+ */
+public class TokenBucketLimiter {
+  private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+
+  private final double capacity;
+
+  private final double tokensPerNano;
+
+  private final long idleNanos;
+
+  private final LongSupplier nanoClock;
+
+  public TokenBucketLimiter(int capacity, double refillPerMinute, long idleMillis) {
+    this(capacity, refillPerMinute, idleMillis, System::nanoTime);
+  }
+
+  TokenBucketLimiter(int capacity, double refillPerMinute, long idleMillis, LongSupplier nanoClock) {
+    this.capacity = capacity;
+    this.tokensPerNano = refillPerMinute / TimeUnit.MINUTES.toNanos(1);
+    this.idleNanos = TimeUnit.MILLISECONDS.toNanos(idleMillis);
+    this.nanoClock = nanoClock;
+  }
+
+  /**
+   * Takes one token for the key.
+   *
+   * @return 0 when a token was available, otherwise the nanoseconds until the next one
+   */
+  public long tryAcquire(String key) {
+    long now = nanoClock.getAsLong();
+    Bucket bucket = buckets.computeIfAbsent(key, k -> new Bucket(capacity, now));
+
+    synchronized (bucket) {
+      bucket.refill(now);
+      if (bucket.tokens >= 1d) {
+        bucket.tokens -= 1d;
+        return 0L;
+      }
+      return (long) Math.ceil((1d - bucket.tokens) / tokensPerNano);
+    }
+  }
+
+  /**
+   * Drops buckets that have not been used for the idle period. A bucket idle
+   * that long has refilled anyway, so recreating it later is equivalent.
+   */
+  public int evictIdle() {
+    long now = nanoClock.getAsLong();
+    int evicted = 0;
+
+    for (Map.Entry<String, Bucket> entry : buckets.entrySet()) {
+      Bucket bucket = entry.getValue();
+      synchronized (bucket) {
+        if (now - bucket.lastUsedNanos >= idleNanos && buckets.remove(entry.getKey(), bucket)) {
+          evicted++;
+        }
+      }
+    }
+
+    return evicted;
+  }
+
+  public int size() {
+    return buckets.size();
+  }
+
+  private final class Bucket {
+    private double tokens;
+
+    private long lastUsedNanos;
+
+    private Bucket(double tokens, long now) {
+      this.tokens = tokens;
+      this.lastUsedNanos = now;
+    }
+
+    private void refill(long now) {
+      tokens = Math.min(capacity, tokens + (now - lastUsedNanos) * tokensPerNano);
+      lastUsedNanos = now;
+    }
+  }
+}
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.CacheStatistics;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Service;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Reads the region counters collected by Hibernate, which the cache profile
+ * turns on together with the second-level cache.
+ */
+@Service
+@Profile("cache")
+public class CacheStatisticsService {
+    private final Statistics statistics;
+
+    public CacheStatisticsService(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public CacheStatistics snapshot() {
+        String[] names = this.statistics.getSecondLevelCacheRegionNames();
+        Arrays.sort(names);
+
+        List<CacheStatistics.Region> regions = new ArrayList<>(names.length);
+        for (String name : names) {
+            CacheRegionStatistics region = this.statistics.getCacheRegionStatistics(name);
+            if (region != null) {
+                regions.add(new CacheStatistics.Region(name, region.getHitCount(), region.getMissCount(),
+                        region.getPutCount(), region.getElementCountInMemory()));
+            }
+        }
+
+        return new CacheStatistics(regions,
+                this.statistics.getNaturalIdCacheHitCount(), this.statistics.getNaturalIdCacheMissCount());
+    }
+}
@@ -0,0 +1,136 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.util.BloomFilter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter of registered emails, so that a signup with a fresh address
+ * is known to be free without a query. Until the index is loaded every
+ * address is reported as possibly taken. Deleted addresses stay in the
+ * filter until enough deletions have piled up to rebuild it.
+ */
+@Component
+public class RegisteredEmailIndex {
+    private static final Logger logger = LoggerFactory.getLogger(RegisteredEmailIndex.class);
+
+    private final UserRepository userRepository;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    private final long minimumExpectedSize;
+
+    private final double falsePositiveRate;
+
+    private final double rebuildDeletionRatio;
+
+    private final AtomicLong insertions = new AtomicLong();
+
+    private final AtomicLong deletions = new AtomicLong();
+
+    private volatile BloomFilter filter;
+
+    private volatile long capacity;
+
+    // Receives the additions made while a rebuild is streaming the table
+    private volatile BloomFilter building;
+
+    @Autowired
+    public RegisteredEmailIndex(UserRepository userRepository,
+                                PlatformTransactionManager transactionManager,
+                                @Value("${oc.app.emailIndexExpectedSize:100000}") long minimumExpectedSize,
+                                @Value("${oc.app.emailIndexFalsePositiveRate:0.01}") double falsePositiveRate,
+                                @Value("${oc.app.emailIndexRebuildDeletionRatio:0.1}") double rebuildDeletionRatio) {
+        this.userRepository = userRepository;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.minimumExpectedSize = minimumExpectedSize;
+        this.falsePositiveRate = falsePositiveRate;
+        this.rebuildDeletionRatio = rebuildDeletionRatio;
+    }
+
+    /**
+     * @return false only when the address is certainly not registered
+     */
+    public boolean mightBeTaken(String email) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(normalize(email));
+    }
+
+    public void add(String email) {
+        String key = normalize(email);
+        insertions.incrementAndGet();
+
+        BloomFilter pending = building;
+        if (pending != null) {
+            pending.add(key);
+        }
+        BloomFilter current = filter;
+        if (current != null) {
+            current.add(key);
+        }
+    }
+
+    public void recordDeletion() {
+        deletions.incrementAndGet();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        long expected = Math.max(minimumExpectedSize, 2 * userRepository.count());
+        BloomFilter rebuilt = new BloomFilter(expected, falsePositiveRate);
+
+        building = rebuilt;
+        try {
+            AtomicLong loaded = new AtomicLong();
+            readOnlyTransaction.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> {
+                        rebuilt.add(normalize(email));
+                        loaded.incrementAndGet();
+                    });
+                }
+            });
+
+            capacity = expected;
+            insertions.set(loaded.get());
+            deletions.set(0);
+            filter = rebuilt;
+            logger.info("Loaded {} registered emails in {} ms", loaded.get(), System.currentTimeMillis() - started);
+        } finally {
+            building = null;
+        }
+    }
+
+    /**
+     * Rebuilds once too many deleted addresses linger in the filter, or once
+     * it holds more addresses than it was sized for.
+     */
+    @Scheduled(fixedDelayString = "${oc.app.emailIndexRebuildCheckMs:300000}")
+    public void rebuildIfStale() {
+        if (filter == null) {
+            return;
+        }
+        if (deletions.get() > insertions.get() * rebuildDeletionRatio || insertions.get() > capacity) {
+            rebuild();
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null ? "" : email.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import org.hibernate.Cache;
+import org.springframework.stereotype.Component;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Drops rosters from the second-level cache region of Session.users.
+ * PARTICIPATE is written through Participation rows and bulk statements,
+ * which Hibernate does not relate to that collection, so every such write
+ * evicts the roster itself. Does nothing when the cache profile is off.
+ */
+@Component
+public class RosterEvictor {
+    private static final String ROSTER_ROLE = Session.class.getName() + ".users";
+
+    private final Cache cache;
+
+    public RosterEvictor(EntityManagerFactory entityManagerFactory) {
+        this.cache = entityManagerFactory.getCache().unwrap(Cache.class);
+    }
+
+    public void evict(Long sessionId) {
+        evictNowAndAfterCommit(() -> this.cache.evictCollectionData(ROSTER_ROLE, sessionId));
+    }
+
+    /*
+     * The first eviction keeps the writing transaction from reading the
+     * roster it has just changed out of the cache. The second one drops a
+     * roster that a concurrent reader cached from the committed state in
+     * between, which would otherwise outlive the write.
+     */
+    private static void evictNowAndAfterCommit(Runnable eviction) {
+        eviction.run();
+        TransactionCallbacks.afterCommit(eviction);
+    }
+}
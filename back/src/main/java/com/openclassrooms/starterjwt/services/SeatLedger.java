@@ -0,0 +1,113 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory front of the seat reservation. It remembers the capacity of the
+ * recently requested sessions and the seats taken since, so that once a
+ * class is full the next clicks on "participate" are rejected without a
+ * database round trip. The counters are striped so that concurrent
+ * reservations on a popular class do not contend on a single word.
+ *
+ * <p>The database counter stays the authority: the ledger only ever
+ * rejects, and its entries expire quickly so that seats freed through
+ * another instance or by an edit become visible again.
+ */
+@Component
+public class SeatLedger {
+    private static final Logger logger = LoggerFactory.getLogger(SeatLedger.class);
+
+    private final SessionRepository sessionRepository;
+
+    private final Cache<Long, Seats> seats;
+
+    @Autowired
+    public SeatLedger(SessionRepository sessionRepository,
+                      @Value("${oc.app.seatLedgerMaxSize:10000}") long maximumSize,
+                      @Value("${oc.app.seatLedgerTtlMs:2000}") long ttlMillis) {
+        this.sessionRepository = sessionRepository;
+        this.seats = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * Counters written before the seats_taken column existed start at zero;
+     * they are realigned with PARTICIPATE before the first reservation.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reconcile() {
+        int corrected = this.sessionRepository.recountSeats();
+        if (corrected > 0) {
+            logger.info("Recounted the seats of {} sessions", corrected);
+        }
+    }
+
+    /**
+     * @return true only when the session is known to be full; the seats of a
+     * session not seen recently are loaded once for all concurrent callers
+     */
+    public boolean isFull(Long sessionId) {
+        Seats entry = this.seats.get(sessionId, id -> this.sessionRepository.findSeatsById(id)
+                .map(found -> new Seats(found.getCapacity(), found.getSeatsTaken()))
+                .orElse(null));
+        return entry != null && entry.isFull();
+    }
+
+    public void taken(Long sessionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            Seats entry = this.seats.getIfPresent(sessionId);
+            if (entry != null) {
+                entry.taken.increment();
+            }
+        });
+    }
+
+    public void released(Long sessionId) {
+        TransactionCallbacks.afterCommit(() -> {
+            Seats entry = this.seats.getIfPresent(sessionId);
+            if (entry != null) {
+                entry.taken.decrement();
+            }
+        });
+    }
+
+    // The database refused a seat: every seat is taken, whatever this instance counted
+    public void full(Long sessionId) {
+        this.seats.asMap().computeIfPresent(sessionId, (id, entry) -> new Seats(entry.capacity, entry.capacity));
+    }
+
+    // The capacity or the roster was replaced
+    public void forget(Long sessionId) {
+        TransactionCallbacks.afterCommit(() -> this.seats.invalidate(sessionId));
+    }
+
+    private static final class Seats {
+        private final int capacity;
+
+        private final LongAdder taken = new LongAdder();
+
+        private Seats(Integer capacity, int taken) {
+            this.capacity = capacity != null ? capacity : Integer.MAX_VALUE;
+            this.taken.add(taken);
+        }
+
+        private boolean isFull() {
+            return this.taken.sum() >= this.capacity;
+        }
+    }
+}
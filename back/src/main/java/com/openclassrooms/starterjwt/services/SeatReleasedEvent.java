@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published once a transaction that may have freed seats in a session has
+ * committed: a participant left or was deleted, or the session was edited.
+ */
+@Value
+public class SeatReleasedEvent {
+    Long sessionId;
+}
@@ -0,0 +1,162 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of session DTOs by id, plus the assembled session list
+ * under a single key. Writers evict once their transaction has completed, so
+ * a concurrent reader cannot put the previous state back. The cached DTOs are
+ * shared between requests and must not be modified.
+ *
+ * <p>Sessions are held as futures: the first reader of a missing id puts an
+ * incomplete future in the cache and loads the DTO on its own thread, and
+ * readers of the same id arriving meanwhile wait on that future instead of
+ * querying the database again. A failed or null load completes every waiter
+ * the same way and is then dropped from the cache by Caffeine.
+ *
+ * <p>Hit, miss and eviction counts are published as the {@code cache.*}
+ * meters tagged {@code cache=sessions} and {@code cache=sessionList}; reads
+ * that joined a load in flight are counted by {@code cache.coalesced}.
+ */
+@Component
+public class SessionCache {
+    private static final String LIST_KEY = "all";
+
+    private final AsyncCache<Long, SessionDto> sessions;
+
+    private final Cache<String, List<SessionDto>> list;
+
+    private final Counter coalesced;
+
+    @Autowired
+    public SessionCache(@Value("${oc.app.sessionCacheMaxSize:10000}") long maximumSize,
+                        @Value("${oc.app.sessionCacheTtlMs:300000}") long ttlMillis,
+                        MeterRegistry meterRegistry) {
+        this.sessions = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .buildAsync();
+        this.list = Caffeine.newBuilder()
+                .maximumSize(1)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .recordStats()
+                .build();
+
+        CaffeineCacheMetrics.monitor(meterRegistry, this.sessions, "sessions");
+        CaffeineCacheMetrics.monitor(meterRegistry, this.list, "sessionList");
+        this.coalesced = Counter.builder("cache.coalesced")
+                .description("Reads that waited on a load already in flight")
+                .tag("cache", "sessions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the cached DTO or loads it, sharing the load with concurrent
+     * readers of the same id; a null result is not cached.
+     */
+    public SessionDto getSession(Long id, Function<Long, SessionDto> loader) {
+        CompletableFuture<SessionDto> own = new CompletableFuture<>();
+        // Only puts the future, the load itself runs outside the map's lock
+        CompletableFuture<SessionDto> shared = this.sessions.get(id, (key, executor) -> own);
+        if (shared != own) {
+            if (!shared.isDone()) {
+                this.coalesced.increment();
+            }
+            return join(shared);
+        }
+
+        try {
+            SessionDto loaded = loader.apply(id);
+            own.complete(loaded);
+            return loaded;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the cached DTOs of the ids and loads all the others with one
+     * call; ids the loader does not return are absent from the result and
+     * not cached.
+     */
+    public Map<Long, SessionDto> getSessions(Collection<Long> ids, Function<Set<Long>, Map<Long, SessionDto>> loader) {
+        return join(this.sessions.getAll(ids, (missing, executor) -> {
+            Set<Long> keys = new HashSet<>();
+            missing.forEach(keys::add);
+            return CompletableFuture.completedFuture(loader.apply(keys));
+        }));
+    }
+
+    public List<SessionDto> getList(Supplier<List<SessionDto>> loader) {
+        return this.list.get(LIST_KEY, key -> Collections.unmodifiableList(loader.get()));
+    }
+
+    /**
+     * Drops the session and the list, once the current transaction if any
+     * has completed. Evicting after a rollback too costs one reload and
+     * never leaves a stale entry.
+     */
+    public void evict(Long id) {
+        TransactionCallbacks.afterCompletion(() -> {
+            this.sessions.synchronous().invalidate(id);
+            this.list.invalidate(LIST_KEY);
+        });
+    }
+
+    /*
+     * A new session only changes the list. Unlike invalidateAll, invalidating
+     * the key waits for a list load in progress and drops what it stored.
+     */
+    public void evictList() {
+        TransactionCallbacks.afterCompletion(() -> this.list.invalidate(LIST_KEY));
+    }
+
+    public CacheStats sessionStats() {
+        return this.sessions.synchronous().stats();
+    }
+
+    public CacheStats listStats() {
+        return this.list.stats();
+    }
+
+    // Waiters get the loader's own exception rather than a CompletionException
+    private static <T> T join(CompletableFuture<T> future) {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,12 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published once the transaction deleting a session, and its waitlist with
+ * it, has committed.
+ */
+@Value
+public class SessionDeletedEvent {
+    Long sessionId;
+}
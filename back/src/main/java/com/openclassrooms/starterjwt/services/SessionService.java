@@ -1,78 +1,390 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.dto.SessionCursor;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import com.openclassrooms.starterjwt.dto.SessionPage;
+import com.openclassrooms.starterjwt.dto.SessionView;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.PreconditionFailedException;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
 import com.openclassrooms.starterjwt.models.Session;
-import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class SessionService {
+    private static final int PARTICIPATION_ATTEMPTS = 3;
+
+    private static final String SESSION_FULL = "Session is full";
+
+    private static final String WAITLIST_FIRST = "Session seats go to its waitlist first";
+
     private final SessionRepository sessionRepository;
 
     private final UserRepository userRepository;
 
-    public SessionService(SessionRepository sessionRepository, UserRepository userRepository) {
+    private final ParticipationRepository participationRepository;
+
+    private final SessionCache sessionCache;
+
+    private final SeatLedger seatLedger;
+
+    private final RosterEvictor rosterEvictor;
+
+    private final WaitlistQueue waitlistQueue;
+
+    private final WaitlistRepository waitlistRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public SessionService(SessionRepository sessionRepository,
+                          UserRepository userRepository,
+                          ParticipationRepository participationRepository,
+                          SessionCache sessionCache,
+                          SeatLedger seatLedger,
+                          RosterEvictor rosterEvictor,
+                          WaitlistQueue waitlistQueue,
+                          WaitlistRepository waitlistRepository,
+                          ApplicationEventPublisher eventPublisher,
+                          PlatformTransactionManager transactionManager) {
         this.sessionRepository = sessionRepository;
         this.userRepository = userRepository;
+        this.participationRepository = participationRepository;
+        this.sessionCache = sessionCache;
+        this.seatLedger = seatLedger;
+        this.rosterEvictor = rosterEvictor;
+        this.waitlistQueue = waitlistQueue;
+        this.waitlistRepository = waitlistRepository;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
     }
 
     public Session create(Session session) {
-        return this.sessionRepository.save(session);
+        countSeats(session);
+        Session saved = this.sessionRepository.save(session);
+        this.sessionCache.evictList();
+        return saved;
     }
 
+    /**
+     * Deletes the session and its waitlist, which WAITLIST.session_id does
+     * not cascade, in one transaction.
+     */
+    @Transactional
     public void delete(Long id) {
+        this.waitlistRepository.deleteBySessionId(id);
         this.sessionRepository.deleteById(id);
+        this.sessionCache.evict(id);
+        this.seatLedger.forget(id);
+        this.waitlistQueue.forget(id);
+        TransactionCallbacks.afterCommit(() -> this.eventPublisher.publishEvent(new SessionDeletedEvent(id)));
     }
 
     public List<Session> findAll() {
         return this.sessionRepository.findAll();
     }
 
+    /**
+     * Lists the sessions as DTOs straight from two scalar queries, without
+     * hydrating Session or User entities. The list is served from the
+     * session cache until a write evicts it; it is read-only.
+     */
+    public List<SessionDto> findAllSummaries() {
+        return this.sessionCache.getList(() -> {
+            List<SessionDto> sessions = this.sessionRepository.findAllSummaries();
+
+            attachParticipants(sessions, this.participationRepository.findAllIds());
+            return sessions;
+        });
+    }
+
+    /**
+     * Cached detail view of one session, or null when it does not exist.
+     * The returned DTO is shared and must not be modified.
+     */
+    public SessionDto findDtoById(Long id) {
+        return this.sessionCache.getSession(id, key -> this.sessionRepository.findSummaryById(key)
+                .map(session -> {
+                    List<SessionDto> single = Collections.singletonList(session);
+                    attachParticipants(single, this.participationRepository.findIdsBySessionIds(
+                            Collections.singletonList(key)));
+                    return session;
+                })
+                .orElse(null));
+    }
+
+    /**
+     * Sessions of the given distinct ids in that order, those not in the
+     * session cache loaded together by one summary query and one
+     * participant query. The returned DTOs are shared and must not be
+     * modified.
+     */
+    public MultiGetResult<SessionDto> findDtosByIds(Collection<Long> ids) {
+        Map<Long, SessionDto> found = this.sessionCache.getSessions(ids, missing -> {
+            List<SessionDto> sessions = this.sessionRepository.findSummariesByIds(missing);
+            attachParticipants(sessions, this.participationRepository.findIdsBySessionIds(missing));
+
+            Map<Long, SessionDto> loaded = new HashMap<>();
+            for (SessionDto session : sessions) {
+                loaded.put(session.getId(), session);
+            }
+            return loaded;
+        });
+        return MultiGetResult.of(ids, found.values(), SessionDto::getId);
+    }
+
+    /**
+     * Detail page of one session for the given user, or null when the
+     * session does not exist. Not cached, as it depends on the caller.
+     */
+    public SessionView findViewById(Long id, Long userId) {
+        return this.sessionRepository.findViewById(id, userId).orElse(null);
+    }
+
+    /**
+     * Returns up to {@code limit} sessions in (date, id) order next to the
+     * cursor: after it when {@code before} is false, before it otherwise. A
+     * null cursor starts from the earliest session. One extra row is read to
+     * tell whether another page exists in the travel direction.
+     */
+    @Transactional(readOnly = true)
+    public SessionPage findPage(SessionCursor cursor, boolean before, int limit, SessionFilter filter) {
+        PageRequest window = PageRequest.of(0, limit + 1);
+        boolean backward = before && cursor != null;
+        List<SessionDto> sessions;
+        if (backward) {
+            sessions = this.sessionRepository.findSummariesBefore(cursor.getDate(), cursor.getId(),
+                    filter.getFrom(), filter.getTo(), filter.getTeacherId(), filter.isFreeSpotsOnly(), window);
+        } else {
+            sessions = this.sessionRepository.findSummariesAfter(
+                    cursor != null ? cursor.getDate() : null, cursor != null ? cursor.getId() : null,
+                    filter.getFrom(), filter.getTo(), filter.getTeacherId(), filter.isFreeSpotsOnly(), window);
+        }
+
+        boolean more = sessions.size() > limit;
+        if (more) {
+            sessions = new ArrayList<>(sessions.subList(0, limit));
+        }
+        if (backward) {
+            Collections.reverse(sessions);
+        }
+
+        if (!sessions.isEmpty()) {
+            List<Long> ids = new ArrayList<>(sessions.size());
+            for (SessionDto session : sessions) {
+                ids.add(session.getId());
+            }
+            attachParticipants(sessions, this.participationRepository.findIdsBySessionIds(ids));
+        }
+
+        if (sessions.isEmpty()) {
+            return new SessionPage(sessions, null, null);
+        }
+
+        // Walking forward from a cursor leaves at least the cursor row behind, walking back leaves it ahead
+        boolean hasNext = backward || more;
+        boolean hasPrevious = backward ? more : cursor != null;
+        return new SessionPage(sessions,
+                hasNext ? SessionCursor.of(sessions.get(sessions.size() - 1)).encode() : null,
+                hasPrevious ? SessionCursor.of(sessions.get(0)).encode() : null);
+    }
+
+    private static void attachParticipants(List<SessionDto> sessions, List<ParticipationId> participations) {
+        Map<Long, List<Long>> participants = new HashMap<>();
+        for (ParticipationId participation : participations) {
+            participants.computeIfAbsent(participation.getSessionId(), sessionId -> new ArrayList<>())
+                    .add(participation.getUserId());
+        }
+
+        for (SessionDto session : sessions) {
+            session.setUsers(participants.getOrDefault(session.getId(), new ArrayList<>()));
+        }
+    }
+
+    /**
+     * Hands every session to the consumer in id order without materialising
+     * the list. The sessions are read as DTOs, never as entities, and each
+     * fetch batch gets its participants from one query before it is handed
+     * over, so the export costs one query per batch rather than per session.
+     */
+    @Transactional(readOnly = true)
+    public void forEachSession(Consumer<SessionDto> consumer) {
+        try (Stream<SessionDto> sessions = this.sessionRepository.streamAllSummaries()) {
+            List<SessionDto> batch = new ArrayList<>(SessionRepository.EXPORT_FETCH_SIZE);
+            for (Iterator<SessionDto> it = sessions.iterator(); it.hasNext(); ) {
+                batch.add(it.next());
+                if (batch.size() == SessionRepository.EXPORT_FETCH_SIZE || !it.hasNext()) {
+                    List<Long> ids = new ArrayList<>(batch.size());
+                    batch.forEach(session -> ids.add(session.getId()));
+                    attachParticipants(batch, this.participationRepository.findIdsBySessionIds(ids));
+                    batch.forEach(consumer);
+                    batch.clear();
+                }
+            }
+        }
+    }
+
     public Session getById(Long id) {
         return this.sessionRepository.findById(id).orElse(null);
     }
 
-    public Session update(Long id, Session session) {
+    /**
+     * Replaces the session if it is still at the version the client read.
+     * The merge checks the version and the UPDATE repeats the check in its
+     * WHERE clause, so no lock is held between the read and the write. A
+     * session sent without its users keeps its current participants.
+     *
+     * @throws PreconditionFailedException when the session changed meanwhile
+     */
+    public Session update(Long id, long expectedVersion, Session session) {
+        if (session.getUsers() == null) {
+            keepRoster(id, expectedVersion, session);
+        } else if (!this.sessionRepository.existsById(id)) {
+            throw new NotFoundException();
+        } else {
+            countSeats(session);
+        }
         session.setId(id);
-        return this.sessionRepository.save(session);
+        session.setVersion(expectedVersion);
+        Session saved;
+        try {
+            saved = this.sessionRepository.save(session);
+        } catch (ObjectOptimisticLockingFailureException e) {
+            throw new PreconditionFailedException();
+        }
+        this.sessionCache.evict(id);
+        this.seatLedger.forget(id);
+        // A larger capacity or a shorter roster leaves seats for the waitlist
+        this.eventPublisher.publishEvent(new SeatReleasedEvent(id));
+        return saved;
     }
 
-    public void participate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        User user = this.userRepository.findById(userId).orElse(null);
-        if (session == null || user == null) {
-            throw new NotFoundException();
+    /*
+     * Carries the stored roster and seat counter over to the new state. A
+     * participation change bumps the version, so a roster read at the
+     * expected version is still the current one when the merge succeeds.
+     */
+    private void keepRoster(Long id, long expectedVersion, Session session) {
+        Session current = this.sessionRepository.findById(id).orElseThrow(NotFoundException::new);
+        if (current.getVersion() != expectedVersion) {
+            throw new PreconditionFailedException();
         }
-
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(alreadyParticipate) {
-            throw new BadRequestException();
+        if (session.getCapacity() != null && current.getSeatsTaken() > session.getCapacity()) {
+            throw new BadRequestException("More participants than seats");
         }
 
-        session.getUsers().add(user);
+        // The merge leaves an uninitialised collection alone, so PARTICIPATE is not rewritten
+        session.setUsers(current.getUsers());
+        session.setSeatsTaken(current.getSeatsTaken());
+    }
 
-        this.sessionRepository.save(session);
+    // A roster sent with the session replaces the participants, so it sets the seat counter too
+    private static void countSeats(Session session) {
+        int participants = session.getUsers() != null ? session.getUsers().size() : 0;
+        if (session.getCapacity() != null && participants > session.getCapacity()) {
+            throw new BadRequestException("More participants than seats");
+        }
+        session.setSeatsTaken(participants);
     }
 
-    public void noLongerParticipate(Long id, Long userId) {
-        Session session = this.sessionRepository.findById(id).orElse(null);
-        if (session == null) {
+    /**
+     * Takes a seat, then inserts the single PARTICIPATE row; the composite
+     * primary key rejects a second participation without loading the roster,
+     * and rolls the seat back. A session the seat ledger knows to be full is
+     * refused without reaching the database. While users wait for the
+     * session, a freed seat goes to the first of them, so everybody else is
+     * refused until the waitlist is empty.
+     *
+     * @throws ConflictException when every seat is taken or others wait for it
+     */
+    public void participate(Long id, Long userId) {
+        if (this.seatLedger.isFull(id)) {
+            throw new ConflictException(SESSION_FULL);
+        }
+        Long firstWaiting = this.waitlistQueue.first(id);
+        if (firstWaiting != null && !firstWaiting.equals(userId)) {
+            throw new ConflictException(WAITLIST_FIRST);
+        }
+        if (!this.userRepository.existsById(userId)) {
             throw new NotFoundException();
         }
 
-        boolean alreadyParticipate = session.getUsers().stream().anyMatch(o -> o.getId().equals(userId));
-        if(!alreadyParticipate) {
-            throw new BadRequestException();
-        }
+        retryOnConflict(() -> {
+            if (this.sessionRepository.reserveSeat(id) == 0) {
+                if (!this.sessionRepository.existsById(id)) {
+                    throw new NotFoundException();
+                }
+                this.seatLedger.full(id);
+                throw new ConflictException(SESSION_FULL);
+            }
+
+            try {
+                this.participationRepository.saveAndFlush(new Participation(id, userId));
+            } catch (DataIntegrityViolationException e) {
+                throw new BadRequestException();
+            }
+            this.seatLedger.taken(id);
+            this.rosterEvictor.evict(id);
+            this.sessionCache.evict(id);
+        });
+    }
 
-        session.setUsers(session.getUsers().stream().filter(user -> !user.getId().equals(userId)).collect(Collectors.toList()));
+    public void noLongerParticipate(Long id, Long userId) {
+        retryOnConflict(() -> {
+            if (this.sessionRepository.releaseSeat(id) == 0) {
+                throw new NotFoundException();
+            }
 
-        this.sessionRepository.save(session);
+            if (this.participationRepository.deleteParticipation(id, userId) == 0) {
+                throw new BadRequestException();
+            }
+            this.seatLedger.released(id);
+            this.rosterEvictor.evict(id);
+            this.sessionCache.evict(id);
+        });
+        this.eventPublisher.publishEvent(new SeatReleasedEvent(id));
+    }
+
+    // Runs the participation write in its own transaction, again when it lost a deadlock or lock wait
+    private void retryOnConflict(Runnable write) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                this.transactionTemplate.executeWithoutResult(status -> write.run());
+                return;
+            } catch (ConcurrencyFailureException e) {
+                if (attempt == PARTICIPATION_ATTEMPTS) {
+                    throw e;
+                }
+            }
+        }
     }
 }
@@ -0,0 +1,11 @@
+package com.openclassrooms.starterjwt.services;
+
+import lombok.Value;
+
+/**
+ * Published when a teacher row is inserted, updated or deleted.
+ */
+@Value
+public class TeacherChangedEvent {
+    Long teacherId;
+}
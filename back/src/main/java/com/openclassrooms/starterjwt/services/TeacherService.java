@@ -1,24 +1,116 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
+/**
+ * Serves teachers from an in-memory {@link TeacherSnapshot}: the table is
+ * tiny and rarely written, so reads take neither a lock nor a query. The
+ * snapshot is rebuilt after every committed teacher write made through JPA,
+ * and a periodic aggregate query catches writes made elsewhere.
+ */
 @Service
 public class TeacherService {
     private final TeacherRepository teacherRepository;
 
-    public TeacherService(TeacherRepository teacherRepository) {
+    private final TeacherMapper teacherMapper;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate snapshotTransaction;
+
+    private volatile TeacherSnapshot snapshot;
+
+    public TeacherService(TeacherRepository teacherRepository,
+                          TeacherMapper teacherMapper,
+                          ObjectMapper objectMapper,
+                          PlatformTransactionManager transactionManager) {
         this.teacherRepository = teacherRepository;
+        this.teacherMapper = teacherMapper;
+        this.objectMapper = objectMapper;
+        // A fresh persistence context, so the snapshot never holds entities managed by a request
+        this.snapshotTransaction = new TransactionTemplate(transactionManager);
+        this.snapshotTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshotTransaction.setReadOnly(true);
     }
 
     public List<Teacher> findAll() {
-        return this.teacherRepository.findAll();
+        return snapshot().getTeachers();
     }
 
     public Teacher findById(Long id) {
-        return this.teacherRepository.findById(id).orElse(null);
+        return snapshot().findById(id);
+    }
+
+    /**
+     * Teachers of the given distinct ids in that order, from the snapshot.
+     */
+    public MultiGetResult<Teacher> findByIds(Collection<Long> ids) {
+        TeacherSnapshot current = snapshot();
+        List<Teacher> found = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            Teacher teacher = current.findById(id);
+            if (teacher != null) {
+                found.add(teacher);
+            }
+        }
+        return MultiGetResult.of(ids, found, Teacher::getId);
+    }
+
+    public TeacherSnapshot snapshot() {
+        TeacherSnapshot current = this.snapshot;
+        return current != null ? current : rebuild();
+    }
+
+    /**
+     * Replaces the snapshot with the committed state of the table.
+     */
+    public synchronized TeacherSnapshot rebuild() {
+        List<Teacher> teachers = this.snapshotTransaction.execute(
+                status -> this.teacherRepository.findAll(Sort.by("id")));
+        TeacherSnapshot previous = this.snapshot;
+        TeacherSnapshot next;
+        try {
+            next = new TeacherSnapshot(previous != null ? previous.getVersion() + 1 : 1, teachers,
+                    this.objectMapper.writeValueAsBytes(this.teacherMapper.toDto(teachers)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.snapshot = next;
+        return next;
+    }
+
+    // Runs once the writing transaction has committed, or at once for a write made outside of one
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onTeacherChanged(TeacherChangedEvent event) {
+        rebuild();
+    }
+
+    /**
+     * Rebuilds when the table changed without going through this instance,
+     * e.g. through another instance or a SQL script.
+     */
+    @Scheduled(fixedDelayString = "${oc.app.teacherSnapshotCheckMs:60000}")
+    public void refreshIfChanged() {
+        TeacherSnapshot current = this.snapshot;
+        if (current != null && !current.isCurrent(this.teacherRepository.findListVersion())) {
+            rebuild();
+        }
     }
 }
@@ -0,0 +1,91 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.Teacher;
+import com.openclassrooms.starterjwt.repository.TeacherRepository;
+import com.openclassrooms.starterjwt.util.ETags;
+import com.openclassrooms.starterjwt.util.LongKeyedMap;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Immutable copy of the whole TEACHERS table: the teachers in id order,
+ * an index by id and the JSON body of the list endpoint, serialized once.
+ * A change replaces the snapshot instead of modifying it. The teachers are
+ * detached and shared by every reader; they must not be modified.
+ */
+public final class TeacherSnapshot {
+    private final long version;
+
+    private final List<Teacher> teachers;
+
+    private final LongKeyedMap<Teacher> byId;
+
+    private final byte[] listJson;
+
+    private final long count;
+
+    private final Long maxId;
+
+    private final LocalDateTime lastUpdate;
+
+    private final String listETag;
+
+    public TeacherSnapshot(long version, List<Teacher> teachers, byte[] listJson) {
+        this.version = version;
+        this.teachers = Collections.unmodifiableList(teachers);
+        this.byId = LongKeyedMap.of(teachers, Teacher::getId);
+        this.listJson = listJson;
+
+        Long highestId = null;
+        LocalDateTime latestUpdate = null;
+        for (Teacher teacher : teachers) {
+            if (highestId == null || teacher.getId() > highestId) {
+                highestId = teacher.getId();
+            }
+            if (teacher.getUpdatedAt() != null
+                    && (latestUpdate == null || teacher.getUpdatedAt().isAfter(latestUpdate))) {
+                latestUpdate = teacher.getUpdatedAt();
+            }
+        }
+        this.count = teachers.size();
+        this.maxId = highestId;
+        this.lastUpdate = latestUpdate;
+        this.listETag = ETags.weak(this.count, Objects.hash(this.maxId, this.lastUpdate));
+    }
+
+    /**
+     * Sequence number of this snapshot, incremented by every rebuild.
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    public List<Teacher> getTeachers() {
+        return teachers;
+    }
+
+    public Teacher findById(long id) {
+        return byId.get(id);
+    }
+
+    /**
+     * The serialized list; shared, callers must not modify it.
+     */
+    public byte[] getListJson() {
+        return listJson;
+    }
+
+    public String getListETag() {
+        return listETag;
+    }
+
+    // Same aggregate as TeacherRepository.findListVersion, so a cheap query tells whether the table moved on
+    boolean isCurrent(TeacherRepository.ListVersion current) {
+        return current.getCount() == count
+                && Objects.equals(current.getMaxId(), maxId)
+                && Objects.equals(current.getLastUpdate(), lastUpdate);
+    }
+}
@@ -1,22 +1,139 @@
 package com.openclassrooms.starterjwt.services;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 
 @Service
 public class UserService {
     private final UserRepository userRepository;
+    private final SessionRepository sessionRepository;
+    private final ParticipationRepository participationRepository;
+    private final RosterEvictor rosterEvictor;
+    private final SessionCache sessionCache;
+    private final SeatLedger seatLedger;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationList tokenRevocationList;
+    private final RegisteredEmailIndex registeredEmailIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
-    public UserService(UserRepository userRepository) {
+    public UserService(UserRepository userRepository,
+                       SessionRepository sessionRepository,
+                       ParticipationRepository participationRepository,
+                       RosterEvictor rosterEvictor,
+                       SessionCache sessionCache,
+                       SeatLedger seatLedger,
+                       RefreshTokenService refreshTokenService,
+                       TokenRevocationList tokenRevocationList,
+                       RegisteredEmailIndex registeredEmailIndex,
+                       ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.sessionRepository = sessionRepository;
+        this.participationRepository = participationRepository;
+        this.rosterEvictor = rosterEvictor;
+        this.sessionCache = sessionCache;
+        this.seatLedger = seatLedger;
+        this.refreshTokenService = refreshTokenService;
+        this.tokenRevocationList = tokenRevocationList;
+        this.registeredEmailIndex = registeredEmailIndex;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Only queries the database when the email index cannot rule the address out.
+     */
+    public boolean isEmailTaken(String email) {
+        return this.registeredEmailIndex.mightBeTaken(email) && this.userRepository.existsByEmail(email);
+    }
+
+    /**
+     * Saves a new user. The unique constraint on USERS.email is what rejects
+     * duplicates, including two concurrent signups with the same address.
+     *
+     * @throws BadRequestException when the email is already registered
+     */
+    public User register(User user) {
+        User saved;
+        try {
+            saved = this.userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException();
+        }
+
+        this.registeredEmailIndex.add(saved.getEmail());
+        return saved;
     }
 
+    /**
+     * Gives back the seats of the user, then removes the participations that
+     * PARTICIPATE.user_id would otherwise refuse to orphan, all in the
+     * transaction deleting the user. The bulk statements bypass every cache
+     * of the sessions the user was in, so each of them is dropped, and their
+     * waitlists are told about the freed seat once the deletion committed.
+     * Access tokens are revoked then too, so a rolled back deletion leaves
+     * the user signed in.
+     */
+    @Transactional
     public void delete(Long id) {
+        List<Long> sessionIds = this.participationRepository.findSessionIdsByUserId(id);
+        this.sessionRepository.releaseSeatsOf(id);
+        this.participationRepository.deleteByUserId(id);
+        this.refreshTokenService.revokeAll(id);
         this.userRepository.deleteById(id);
+        for (Long sessionId : sessionIds) {
+            this.rosterEvictor.evict(sessionId);
+            this.sessionCache.evict(sessionId);
+            this.seatLedger.forget(sessionId);
+            TransactionCallbacks.afterCommit(
+                    () -> this.eventPublisher.publishEvent(new SeatReleasedEvent(sessionId)));
+        }
+        TransactionCallbacks.afterCommit(() -> this.tokenRevocationList.revokeUser(id));
+        this.registeredEmailIndex.recordDeletion();
     }
 
     public User findById(Long id) {
         return this.userRepository.findById(id).orElse(null);
     }
+
+    /**
+     * Loads the users with a single query and returns them in the order of
+     * the ids, each id once.
+     *
+     * @throws BadRequestException naming the ids that match no user
+     */
+    public List<User> findAllById(Collection<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        MultiGetResult<User> users = findByIds(new LinkedHashSet<>(ids));
+
+        if (!users.getMissing().isEmpty()) {
+            throw new BadRequestException("Unknown user ids: " + users.getMissing());
+        }
+        return users.getItems();
+    }
+
+    /**
+     * Loads the users of the given distinct ids with a single query, in the
+     * order of the ids, and names the ids that match no user.
+     */
+    public MultiGetResult<User> findByIds(Collection<Long> ids) {
+        return MultiGetResult.of(ids, this.userRepository.findAllById(ids), User::getId);
+    }
 }
@@ -0,0 +1,62 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Seats waitlisted users off the request thread. Freed seats only mark their
+ * session as pending, which costs the leaving request a set insertion; the
+ * scheduler then promotes each pending session once per run, however many
+ * seats were freed in it meanwhile. A session whose promotion failed stays
+ * pending for the next run.
+ */
+@Component
+public class WaitlistPromoter {
+    private static final Logger logger = LoggerFactory.getLogger(WaitlistPromoter.class);
+
+    private final WaitlistService waitlistService;
+
+    private final Set<Long> pending = ConcurrentHashMap.newKeySet();
+
+    public WaitlistPromoter(WaitlistService waitlistService) {
+        this.waitlistService = waitlistService;
+    }
+
+    @EventListener
+    public void onSeatReleased(SeatReleasedEvent event) {
+        this.pending.add(event.getSessionId());
+    }
+
+    // Nobody waits for a deleted session any more
+    @EventListener
+    public void onSessionDeleted(SessionDeletedEvent event) {
+        this.pending.remove(event.getSessionId());
+    }
+
+    @Scheduled(fixedDelayString = "${oc.app.waitlistPromotionDelayMs:1000}")
+    public void promotePending() {
+        List<Long> sessionIds = new ArrayList<>(this.pending);
+        for (Long sessionId : sessionIds) {
+            // Removed before promoting, so a seat freed during the promotion schedules another pass
+            this.pending.remove(sessionId);
+            try {
+                int promoted = this.waitlistService.promote(sessionId);
+                if (promoted > 0) {
+                    logger.info("Promoted {} waitlisted users into session {}", promoted, sessionId);
+                }
+            } catch (RuntimeException e) {
+                // Direct participations wait for the waitlist, so the freed seat would stay empty otherwise
+                this.pending.add(sessionId);
+                logger.warn("Waitlist promotion failed for session {}: {}", sessionId, e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,140 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.util.TransactionCallbacks;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * In-memory view of the waitlist of each recently requested session, loaded
+ * from WAITLIST in one query, so that a position is a binary search over
+ * the entry ids instead of a count over the table. Changes made through this
+ * instance are applied once their transaction has committed; the view
+ * expires so that changes made through another instance show up.
+ */
+@Component
+public class WaitlistQueue {
+    private final WaitlistRepository waitlistRepository;
+
+    private final Cache<Long, Line> lines;
+
+    @Autowired
+    public WaitlistQueue(WaitlistRepository waitlistRepository,
+                         @Value("${oc.app.waitlistViewMaxSize:10000}") long maximumSize,
+                         @Value("${oc.app.waitlistViewTtlMs:60000}") long ttlMillis) {
+        this.waitlistRepository = waitlistRepository;
+        this.lines = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttlMillis, TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    /**
+     * @return the 1-based position of the user, or 0 when not waiting
+     */
+    public int position(Long sessionId, Long userId) {
+        return line(sessionId).position(userId);
+    }
+
+    /**
+     * @return the user waiting the longest, or null when nobody waits
+     */
+    public Long first(Long sessionId) {
+        return line(sessionId).first();
+    }
+
+    public void added(WaitlistEntry entry) {
+        TransactionCallbacks.afterCommit(() -> {
+            Line line = this.lines.getIfPresent(entry.getSessionId());
+            if (line != null) {
+                line.add(entry.getId(), entry.getUserId());
+            }
+        });
+    }
+
+    public void removed(Long sessionId, Long userId) {
+        TransactionCallbacks.afterCommit(() -> {
+            Line line = this.lines.getIfPresent(sessionId);
+            if (line != null) {
+                line.remove(userId);
+            }
+        });
+    }
+
+    // The session is gone along with its waitlist
+    public void forget(Long sessionId) {
+        TransactionCallbacks.afterCommit(() -> this.lines.invalidate(sessionId));
+    }
+
+    private Line line(Long sessionId) {
+        return this.lines.get(sessionId, id -> {
+            Line line = new Line();
+            for (WaitlistEntry entry : this.waitlistRepository.findBySessionId(id)) {
+                line.add(entry.getId(), entry.getUserId());
+            }
+            return line;
+        });
+    }
+
+    // Entry ids in ascending order, the user of each entry at the same index
+    private static final class Line {
+        private long[] entryIds = new long[8];
+
+        private long[] userIds = new long[8];
+
+        private int size;
+
+        private final Map<Long, Long> entryIdByUser = new HashMap<>();
+
+        synchronized void add(long entryId, long userId) {
+            if (this.entryIdByUser.putIfAbsent(userId, entryId) != null) {
+                return;
+            }
+
+            if (this.size == this.entryIds.length) {
+                this.entryIds = Arrays.copyOf(this.entryIds, this.size * 2);
+                this.userIds = Arrays.copyOf(this.userIds, this.size * 2);
+            }
+            // Ids are generated in increasing order, so this is almost always an append
+            int at = this.size;
+            while (at > 0 && this.entryIds[at - 1] > entryId) {
+                at--;
+            }
+            System.arraycopy(this.entryIds, at, this.entryIds, at + 1, this.size - at);
+            System.arraycopy(this.userIds, at, this.userIds, at + 1, this.size - at);
+            this.entryIds[at] = entryId;
+            this.userIds[at] = userId;
+            this.size++;
+        }
+
+        synchronized void remove(long userId) {
+            Long entryId = this.entryIdByUser.remove(userId);
+            if (entryId == null) {
+                return;
+            }
+
+            int at = Arrays.binarySearch(this.entryIds, 0, this.size, entryId);
+            System.arraycopy(this.entryIds, at + 1, this.entryIds, at, this.size - at - 1);
+            System.arraycopy(this.userIds, at + 1, this.userIds, at, this.size - at - 1);
+            this.size--;
+        }
+
+        synchronized int position(long userId) {
+            Long entryId = this.entryIdByUser.get(userId);
+            return entryId == null ? 0 : Arrays.binarySearch(this.entryIds, 0, this.size, entryId) + 1;
+        }
+
+        synchronized Long first() {
+            return this.size == 0 ? null : this.userIds[0];
+        }
+    }
+}
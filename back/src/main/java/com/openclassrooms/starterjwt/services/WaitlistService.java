@@ -0,0 +1,124 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+@Service
+public class WaitlistService {
+    private final WaitlistRepository waitlistRepository;
+
+    private final WaitlistQueue waitlistQueue;
+
+    private final SessionRepository sessionRepository;
+
+    private final UserRepository userRepository;
+
+    private final ParticipationRepository participationRepository;
+
+    private final SessionService sessionService;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    public WaitlistService(WaitlistRepository waitlistRepository,
+                           WaitlistQueue waitlistQueue,
+                           SessionRepository sessionRepository,
+                           UserRepository userRepository,
+                           ParticipationRepository participationRepository,
+                           SessionService sessionService,
+                           ApplicationEventPublisher eventPublisher) {
+        this.waitlistRepository = waitlistRepository;
+        this.waitlistQueue = waitlistQueue;
+        this.sessionRepository = sessionRepository;
+        this.userRepository = userRepository;
+        this.participationRepository = participationRepository;
+        this.sessionService = sessionService;
+        this.eventPublisher = eventPublisher;
+    }
+
+    /**
+     * Queues the user for a seat in a full session.
+     *
+     * @return the 1-based position of the user in the waitlist
+     * @throws ConflictException when the session still has free seats
+     */
+    public int join(Long sessionId, Long userId) {
+        SessionRepository.Seats seats = this.sessionRepository.findSeatsById(sessionId)
+                .orElseThrow(NotFoundException::new);
+        if (!this.userRepository.existsById(userId)) {
+            throw new NotFoundException();
+        }
+        if (seats.getCapacity() == null || seats.getSeatsTaken() < seats.getCapacity()) {
+            throw new ConflictException("Session has free seats");
+        }
+        if (this.participationRepository.existsById(new ParticipationId(sessionId, userId))) {
+            throw new BadRequestException("Already participating");
+        }
+
+        WaitlistEntry entry;
+        try {
+            entry = this.waitlistRepository.saveAndFlush(new WaitlistEntry(sessionId, userId));
+        } catch (DataIntegrityViolationException e) {
+            throw new BadRequestException("Already waiting");
+        }
+        this.waitlistQueue.added(entry);
+
+        // A seat freed between the check and the insert found nobody to promote
+        this.eventPublisher.publishEvent(new SeatReleasedEvent(sessionId));
+        return this.waitlistQueue.position(sessionId, userId);
+    }
+
+    public void leave(Long sessionId, Long userId) {
+        if (this.waitlistRepository.deleteEntry(sessionId, userId) == 0) {
+            throw new BadRequestException();
+        }
+        this.waitlistQueue.removed(sessionId, userId);
+    }
+
+    /**
+     * @return the 1-based position of the user in the waitlist
+     * @throws NotFoundException when the user is not waiting
+     */
+    public int position(Long sessionId, Long userId) {
+        int position = this.waitlistQueue.position(sessionId, userId);
+        if (position == 0) {
+            throw new NotFoundException();
+        }
+        return position;
+    }
+
+    /**
+     * Seats the waiting users in order until the session is full or nobody
+     * waits. Users who already participate, or no longer exist, leave the
+     * waitlist without taking a seat.
+     *
+     * @return the number of users seated
+     */
+    public int promote(Long sessionId) {
+        int promoted = 0;
+        for (Long userId = this.waitlistQueue.first(sessionId); userId != null;
+             userId = this.waitlistQueue.first(sessionId)) {
+            try {
+                this.sessionService.participate(sessionId, userId);
+                promoted++;
+            } catch (ConflictException e) {
+                return promoted;
+            } catch (BadRequestException | NotFoundException e) {
+                // Already seated, or the user or the session is gone: nothing to wait for
+            }
+
+            this.waitlistRepository.deleteEntry(sessionId, userId);
+            this.waitlistQueue.removed(sessionId, userId);
+        }
+        return promoted;
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * Entity tags for the JSON resources. The tag is built from values the
+ * caller already holds, such as the id, updatedAt and a content hash, so
+ * answering a conditional GET never requires serializing the body.
+ */
+public final class ETags {
+    private ETags() {
+    }
+
+    public static String weak(Object id, long fingerprint) {
+        return "W/\"" + id + "-" + Long.toHexString(fingerprint) + "\"";
+    }
+
+    /**
+     * Strong tag of a versioned resource: the version changes with every
+     * modification of the representation.
+     */
+    public static String strong(Object id, long version) {
+        return "\"" + id + "-" + version + "\"";
+    }
+
+    /**
+     * Version named by an If-Match header for the given resource, or null
+     * when the header is not a single strong tag produced by {@link #strong}.
+     */
+    public static Long version(String ifMatch, Object id) {
+        if (ifMatch == null) {
+            return null;
+        }
+
+        String prefix = "\"" + id + "-";
+        String tag = ifMatch.trim();
+        if (!tag.startsWith(prefix) || !tag.endsWith("\"") || tag.length() <= prefix.length() + 1) {
+            return null;
+        }
+        try {
+            return Long.parseLong(tag.substring(prefix.length(), tag.length() - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Weak comparison of an If-None-Match header against the current tag, as
+     * required for GET: the W/ prefixes are ignored and "*" matches anything.
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || etag == null) {
+            return false;
+        }
+
+        String current = opaque(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String trimmed = candidate.trim();
+            if (trimmed.equals("*") || opaque(trimmed).equals(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 304 with the tag when the client already holds it, otherwise 200 with
+     * the tag and the body, which is only built in that case.
+     */
+    public static ResponseEntity<?> conditional(String ifNoneMatch, String etag, Supplier<?> body) {
+        if (matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        return ResponseEntity.ok().eTag(etag).body(body.get());
+    }
+
+    private static String opaque(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+}
@@ -0,0 +1,42 @@
+package com.openclassrooms.starterjwt.util;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The {@code ids} parameter of the multi-get endpoints: a comma-separated
+ * list of record ids, capped so that one request cannot ask for the whole
+ * table.
+ */
+public final class IdList {
+    public static final int MAX_IDS = 100;
+
+    private IdList() {
+    }
+
+    /**
+     * @return the distinct ids in the order they were first given
+     * @throws NumberFormatException when an id is not a number
+     * @throws IllegalArgumentException when there is no id or more than {@code max}
+     */
+    public static List<Long> parse(String csv, int max) {
+        Set<Long> ids = new LinkedHashSet<>();
+        int count = 0;
+        int start = 0;
+        while (start <= csv.length()) {
+            int end = csv.indexOf(',', start);
+            if (end < 0) {
+                end = csv.length();
+            }
+            // Counted before parsing, so an oversized list is refused without reading it all
+            if (++count > max) {
+                throw new IllegalArgumentException("At most " + max + " ids");
+            }
+            ids.add(Long.valueOf(csv.substring(start, end).trim()));
+            start = end + 1;
+        }
+        return new ArrayList<>(ids);
+    }
+}
@@ -0,0 +1,83 @@
+package com.openclassrooms.starterjwt.util;
+
+import java.util.Collection;
+import java.util.function.ToLongFunction;
+
+/**
+ * Immutable map from primitive long keys to values, laid out as open
+ * addressing with linear probing over two parallel arrays. Lookups neither
+ * box the key nor allocate, and since the arrays are never written after
+ * construction the map can be read from any thread without locking once it
+ * has been safely published.
+ */
+public final class LongKeyedMap<V> {
+    private final long[] keys;
+
+    private final Object[] values;
+
+    private final int mask;
+
+    private final int size;
+
+    private LongKeyedMap(long[] keys, Object[] values, int size) {
+        this.keys = keys;
+        this.values = values;
+        this.mask = keys.length - 1;
+        this.size = size;
+    }
+
+    /**
+     * Indexes the non-null values by the given key; a later value replaces an
+     * earlier one with the same key.
+     */
+    public static <V> LongKeyedMap<V> of(Collection<? extends V> values, ToLongFunction<? super V> key) {
+        // At most half full, so that probe sequences stay short
+        int capacity = Integer.highestOneBit(Math.max(1, values.size()) * 2 - 1) << 1;
+        long[] keys = new long[capacity];
+        Object[] slots = new Object[capacity];
+        int mask = capacity - 1;
+
+        int size = 0;
+        for (V value : values) {
+            if (value == null) {
+                continue;
+            }
+            long k = key.applyAsLong(value);
+            int slot = slot(k, mask);
+            while (slots[slot] != null && keys[slot] != k) {
+                slot = (slot + 1) & mask;
+            }
+            if (slots[slot] == null) {
+                size++;
+            }
+            keys[slot] = k;
+            slots[slot] = value;
+        }
+        return new LongKeyedMap<>(keys, slots, size);
+    }
+
+    @SuppressWarnings("unchecked")
+    public V get(long key) {
+        for (int slot = slot(key, mask); values[slot] != null; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return (V) values[slot];
+            }
+        }
+        return null;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    // MurmurHash3 fmix64, so that consecutive ids spread over the table
+    private static int slot(long key, int mask) {
+        long hash = key;
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return (int) hash & mask;
+    }
+}
@@ -0,0 +1,118 @@
+package com.openclassrooms.starterjwt.benchmark;
+
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
+import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
+import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.jwt.VerifiedTokenCache;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.servlet.FilterChain;
+import javax.servlet.http.HttpServletRequest;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-request cost of the JWT filter on a public route that still carries a
+ * bearer token (the front end sends it on every call), with and without the
+ * route classification, and on a protected route for reference.
+ *
+ * Run with the main method, or: java -cp target/test-classes:&lt;test classpath&gt; org.openjdk.jmh.Main AuthTokenFilterBenchmark
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AuthTokenFilterBenchmark {
+
+    private static final FilterChain NO_OP_CHAIN = (request, response) -> { };
+
+    private AuthTokenFilter classifiedFilter;
+    private AuthTokenFilter unclassifiedFilter;
+    private MockHttpServletRequest publicRequest;
+    private MockHttpServletRequest protectedRequest;
+    private MockHttpServletResponse response;
+
+    /** The filter as it was before public routes were classified. */
+    static class UnclassifiedAuthTokenFilter extends AuthTokenFilter {
+        @Override
+        protected boolean shouldNotFilter(HttpServletRequest request) {
+            return false;
+        }
+    }
+
+    @Setup
+    public void setUp() {
+        SecurityEventLogger securityEventLogger = new SecurityEventLogger(5, 100, new SimpleMeterRegistry());
+        JwtUtils jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", "benchmark-secret");
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 900_000);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCache", new VerifiedTokenCache(1_000));
+        ReflectionTestUtils.setField(jwtUtils, "securityEventLogger", securityEventLogger);
+
+        String token = jwtUtils.generateTokenFromUserDetails(UserDetailsImpl.builder()
+                .id(1L)
+                .username("bench@test.com")
+                .firstName("Bench")
+                .lastName("Mark")
+                .admin(false)
+                .build());
+
+        classifiedFilter = filter(new AuthTokenFilter(), jwtUtils, securityEventLogger);
+        unclassifiedFilter = filter(new UnclassifiedAuthTokenFilter(), jwtUtils, securityEventLogger);
+
+        publicRequest = request("POST", "/api/auth/refresh", token);
+        protectedRequest = request("GET", "/api/session", token);
+        response = new MockHttpServletResponse();
+    }
+
+    private static AuthTokenFilter filter(AuthTokenFilter filter, JwtUtils jwtUtils,
+            SecurityEventLogger securityEventLogger) {
+        ReflectionTestUtils.setField(filter, "jwtUtils", jwtUtils);
+        ReflectionTestUtils.setField(filter, "securityEventLogger", securityEventLogger);
+        ReflectionTestUtils.setField(filter, "tokenRevocationList", new TokenRevocationList(1_000, 900_000));
+        ReflectionTestUtils.setField(filter, "statelessPrincipal", true);
+        return filter;
+    }
+
+    private static MockHttpServletRequest request(String method, String path, String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+
+    @Benchmark
+    public void publicRouteBefore() throws Exception {
+        unclassifiedFilter.doFilter(publicRequest, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void publicRouteAfter() throws Exception {
+        classifiedFilter.doFilter(publicRequest, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    @Benchmark
+    public void protectedRoute() throws Exception {
+        classifiedFilter.doFilter(protectedRequest, response, NO_OP_CHAIN);
+        SecurityContextHolder.clearContext();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(AuthTokenFilterBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -11,20 +11,32 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.request.TokenRefreshRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
 import com.openclassrooms.starterjwt.payload.response.MessageResponse;
+import com.openclassrooms.starterjwt.payload.response.TokenRefreshResponse;
 import com.openclassrooms.starterjwt.repository.UserRepository;
 import com.openclassrooms.starterjwt.security.jwt.JwtUtils;
+import com.openclassrooms.starterjwt.security.jwt.JwtVerification;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.security.throttle.LoginThrottle;
+import com.openclassrooms.starterjwt.services.UserService;
 
 import java.util.Optional;
 
@@ -47,6 +59,18 @@ class AuthControllerTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private LoginThrottle loginThrottle;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private UserService userService;
+
     @InjectMocks
     private AuthController authController;
 
@@ -54,6 +78,7 @@ class AuthControllerTest {
     private SignupRequest signupRequest;
     private UserDetailsImpl userDetails;
     private User user;
+    private MockHttpServletRequest httpRequest;
     private static final String TEST_JWT = "test.jwt.token";
 
     @BeforeEach
@@ -63,6 +88,9 @@ class AuthControllerTest {
         loginRequest.setEmail("test@test.com");
         loginRequest.setPassword("password123");
 
+        httpRequest = new MockHttpServletRequest();
+        httpRequest.setRemoteAddr("10.0.0.1");
+
         // Setup signup request
         signupRequest = new SignupRequest();
         signupRequest.setEmail("test@test.com");
@@ -103,9 +131,10 @@ class AuthControllerTest {
             when(jwtUtils.generateJwtToken(authentication)).thenReturn(TEST_JWT);
             when(userRepository.findByEmail(userDetails.getUsername()))
                     .thenReturn(Optional.of(user));
+            when(refreshTokenService.create(user)).thenReturn("refresh-token");
 
             // Act
-            ResponseEntity<?> response = authController.authenticateUser(loginRequest);
+            ResponseEntity<?> response = authController.authenticateUser(loginRequest, httpRequest);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
@@ -114,6 +143,7 @@ class AuthControllerTest {
 
             JwtResponse jwtResponse = (JwtResponse) response.getBody();
             assertEquals(TEST_JWT, jwtResponse.getToken());
+            assertEquals("refresh-token", jwtResponse.getRefreshToken());
             assertEquals(userDetails.getId(), jwtResponse.getId());
             assertEquals(userDetails.getUsername(), jwtResponse.getUsername());
             assertEquals(userDetails.getFirstName(), jwtResponse.getFirstName());
@@ -126,6 +156,95 @@ class AuthControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("Login Throttling Tests")
+    class LoginThrottlingTests {
+
+        @Test
+        @DisplayName("Should reject throttled attempts before authenticating")
+        void shouldRejectThrottledAttemptsBeforeAuthenticating() {
+            // Arrange
+            when(loginThrottle.tryAcquire("test@test.com", "10.0.0.1")).thenReturn(12L);
+
+            // Act
+            ResponseEntity<?> response = authController.authenticateUser(loginRequest, httpRequest);
+
+            // Assert
+            assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+            assertEquals("12", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+            verifyNoInteractions(authenticationManager, userRepository, passwordEncoder);
+        }
+    }
+
+    @Nested
+    @DisplayName("Refresh Tests")
+    class RefreshTests {
+
+        private TokenRefreshRequest refreshRequest;
+
+        @BeforeEach
+        void setUp() {
+            refreshRequest = new TokenRefreshRequest();
+            refreshRequest.setRefreshToken("refresh-token");
+        }
+
+        @Test
+        @DisplayName("Should rotate the refresh token and issue a new access token")
+        void shouldRotateRefreshToken() {
+            // Arrange
+            when(refreshTokenService.consume("refresh-token")).thenReturn(Optional.of(user));
+            when(jwtUtils.generateTokenFromUserDetails(any(UserDetailsImpl.class))).thenReturn(TEST_JWT);
+            when(refreshTokenService.create(user)).thenReturn("next-refresh-token");
+
+            // Act
+            ResponseEntity<?> response = authController.refreshToken(refreshRequest);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            TokenRefreshResponse body = (TokenRefreshResponse) response.getBody();
+            assertEquals(TEST_JWT, body.getToken());
+            assertEquals("next-refresh-token", body.getRefreshToken());
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown or already used refresh token")
+        void shouldRejectUnknownRefreshToken() {
+            // Arrange
+            when(refreshTokenService.consume("refresh-token")).thenReturn(Optional.empty());
+
+            // Act
+            ResponseEntity<?> response = authController.refreshToken(refreshRequest);
+
+            // Assert
+            assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+            assertInstanceOf(MessageResponse.class, response.getBody());
+            verifyNoInteractions(jwtUtils);
+        }
+    }
+
+    @Test
+    @DisplayName("Should revoke the access token and refresh tokens on logout")
+    void shouldRevokeTokensOnLogout() {
+        // Arrange
+        httpRequest.addHeader(HttpHeaders.AUTHORIZATION, "Bearer " + TEST_JWT);
+        when(jwtUtils.verifyJwtToken(TEST_JWT))
+                .thenReturn(JwtVerification.valid("test@test.com", userDetails, "jti-1", 0L, 1000L));
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(userDetails, null, userDetails.getAuthorities()));
+
+        try {
+            // Act
+            ResponseEntity<?> response = authController.logoutUser(httpRequest);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            verify(tokenRevocationList).revokeToken("jti-1", 1000L);
+            verify(refreshTokenService).revokeAll(1L);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+    }
+
     @Nested
     @DisplayName("Register Tests")
     class RegisterTests {
@@ -134,10 +253,10 @@ class AuthControllerTest {
         @DisplayName("Should register user successfully")
         void shouldRegisterUserSuccessfully() {
             // Arrange
-            when(userRepository.existsByEmail(signupRequest.getEmail())).thenReturn(false);
+            when(userService.isEmailTaken(signupRequest.getEmail())).thenReturn(false);
             when(passwordEncoder.encode(signupRequest.getPassword()))
                     .thenReturn("hashedPassword");
-            when(userRepository.save(any(User.class))).thenReturn(user);
+            when(userService.register(any(User.class))).thenReturn(user);
 
             // Act
             ResponseEntity<?> response = authController.registerUser(signupRequest);
@@ -149,9 +268,40 @@ class AuthControllerTest {
             assertEquals("User registered successfully!",
                     ((MessageResponse) response.getBody()).getMessage());
 
-            verify(userRepository).existsByEmail(signupRequest.getEmail());
+            verify(userService).isEmailTaken(signupRequest.getEmail());
             verify(passwordEncoder).encode(signupRequest.getPassword());
-            verify(userRepository).save(any(User.class));
+            verify(userService).register(any(User.class));
+        }
+
+        @Test
+        @DisplayName("Should reject a taken email before hashing the password")
+        void shouldRejectTakenEmailBeforeHashing() {
+            // Arrange
+            when(userService.isEmailTaken(signupRequest.getEmail())).thenReturn(true);
+
+            // Act
+            ResponseEntity<?> response = authController.registerUser(signupRequest);
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(passwordEncoder);
+            verify(userService, never()).register(any(User.class));
+        }
+
+        @Test
+        @DisplayName("Should reject a concurrent signup caught by the unique constraint")
+        void shouldRejectConcurrentDuplicateSignup() {
+            // Arrange
+            when(userService.isEmailTaken(signupRequest.getEmail())).thenReturn(false);
+            when(passwordEncoder.encode(signupRequest.getPassword())).thenReturn("hashedPassword");
+            when(userService.register(any(User.class))).thenThrow(new BadRequestException());
+
+            // Act
+            ResponseEntity<?> response = authController.registerUser(signupRequest);
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            assertEquals("Error: Email is already taken!", ((MessageResponse) response.getBody()).getMessage());
         }
     }
 
@@ -167,11 +317,51 @@ class AuthControllerTest {
                 .thenReturn(Optional.empty());
 
         // Act
-        ResponseEntity<?> response = authController.authenticateUser(loginRequest);
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest, httpRequest);
 
         // Assert
         assertTrue(response.getStatusCode().is2xxSuccessful());
         JwtResponse jwtResponse = (JwtResponse) response.getBody();
         assertFalse(jwtResponse.getAdmin());
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should rehash the password when its bcrypt cost differs from the target")
+    void shouldRehashPasswordWhenCostDiffers() {
+        // Arrange
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(jwtUtils.generateJwtToken(authentication)).thenReturn(TEST_JWT);
+        when(userRepository.findByEmail(userDetails.getUsername())).thenReturn(Optional.of(user));
+        when(passwordEncoder.upgradeEncoding("hashedPassword")).thenReturn(true);
+        when(passwordEncoder.encode(loginRequest.getPassword())).thenReturn("rehashedPassword");
+
+        // Act
+        ResponseEntity<?> response = authController.authenticateUser(loginRequest, httpRequest);
+
+        // Assert
+        assertTrue(response.getStatusCode().is2xxSuccessful());
+        assertEquals("rehashedPassword", user.getPassword());
+        verify(userRepository).save(user);
+    }
+
+    @Test
+    @DisplayName("Should not rehash the password when its cost matches the target")
+    void shouldNotRehashPasswordWhenCostMatches() {
+        // Arrange
+        when(authenticationManager.authenticate(any(UsernamePasswordAuthenticationToken.class)))
+                .thenReturn(authentication);
+        when(authentication.getPrincipal()).thenReturn(userDetails);
+        when(jwtUtils.generateJwtToken(authentication)).thenReturn(TEST_JWT);
+        when(userRepository.findByEmail(userDetails.getUsername())).thenReturn(Optional.of(user));
+        when(passwordEncoder.upgradeEncoding("hashedPassword")).thenReturn(false);
+
+        // Act
+        authController.authenticateUser(loginRequest, httpRequest);
+
+        // Assert
+        verify(passwordEncoder, never()).encode(any());
+        verify(userRepository, never()).save(any(User.class));
+    }
+}
@@ -0,0 +1,74 @@
+package com.openclassrooms.starterjwt.controllers;
+
+import com.openclassrooms.starterjwt.dto.CacheStatistics;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+import com.openclassrooms.starterjwt.services.CacheStatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CacheStatisticsController Tests")
+class CacheStatisticsControllerTest {
+
+    @Mock
+    private CacheStatisticsService cacheStatisticsService;
+
+    @InjectMocks
+    private CacheStatisticsController cacheStatisticsController;
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    private static void authenticate(boolean admin) {
+        UserDetailsImpl principal = UserDetailsImpl.builder().id(1L).username("test@test.com").admin(admin).build();
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+    }
+
+    @Test
+    @DisplayName("Should return the region statistics to an admin")
+    void shouldReturnStatisticsToAdmin() {
+        // Arrange
+        authenticate(true);
+        CacheStatistics statistics = new CacheStatistics(Collections.singletonList(
+                new CacheStatistics.Region("teachers", 3, 1, 1, -1)), 2, 1);
+        when(cacheStatisticsService.snapshot()).thenReturn(statistics);
+
+        // Act
+        ResponseEntity<?> response = cacheStatisticsController.statistics();
+
+        // Assert
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertSame(statistics, response.getBody());
+    }
+
+    @Test
+    @DisplayName("Should refuse the statistics to a regular user")
+    void shouldRejectRegularUser() {
+        // Arrange
+        authenticate(false);
+
+        // Act
+        ResponseEntity<?> response = cacheStatisticsController.statistics();
+
+        // Assert
+        assertEquals(HttpStatus.FORBIDDEN, response.getStatusCode());
+        verifyNoInteractions(cacheStatisticsService);
+    }
+}
@@ -1,9 +1,20 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.dto.SessionCursor;
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import com.openclassrooms.starterjwt.dto.SessionPage;
+import com.openclassrooms.starterjwt.dto.SessionView;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.dto.WaitlistPosition;
 import com.openclassrooms.starterjwt.mapper.SessionMapper;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -11,16 +22,34 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.ByteArrayOutputStream;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -33,12 +62,17 @@ class SessionControllerTest {
     @Mock
     private SessionMapper sessionMapper;
 
+    @Mock
+    private WaitlistService waitlistService;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
     @InjectMocks
     private SessionController sessionController;
 
     private Session mockSession;
     private SessionDto mockSessionDto;
-    private List<Session> mockSessionList;
     private List<SessionDto> mockSessionDtoList;
 
     @BeforeEach
@@ -56,10 +90,10 @@ class SessionControllerTest {
         mockSessionDto.setName("Yoga Session");
         mockSessionDto.setDescription("Beginner friendly yoga session");
         mockSessionDto.setTeacher_id(1L);
+        mockSessionDto.setVersion(0L);
         mockSessionDto.setCreatedAt(mockSession.getCreatedAt());
         mockSessionDto.setUpdatedAt(mockSession.getUpdatedAt());
 
-        mockSessionList = Arrays.asList(mockSession);
         mockSessionDtoList = Arrays.asList(mockSessionDto);
     }
 
@@ -71,17 +105,133 @@ class SessionControllerTest {
         @DisplayName("Should return session when found")
         void shouldReturnSessionWhenFound() {
             // Arrange
-            when(sessionService.getById(1L)).thenReturn(mockSession);
-            when(sessionMapper.toDto(mockSession)).thenReturn(mockSessionDto);
+            when(sessionService.findDtoById(1L)).thenReturn(mockSessionDto);
 
             // Act
-            ResponseEntity<?> response = sessionController.findById("1");
+            ResponseEntity<?> response = sessionController.findById("1", null);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
             assertEquals(mockSessionDto, response.getBody());
-            verify(sessionService).getById(1L);
-            verify(sessionMapper).toDto(mockSession);
+            verify(sessionService).findDtoById(1L);
+            verifyNoInteractions(sessionMapper);
+        }
+
+        @Test
+        @DisplayName("Should answer 304 while the session is unchanged and 200 once it changes")
+        void shouldHonourIfNoneMatch() {
+            // Arrange
+            when(sessionService.findDtoById(1L)).thenReturn(mockSessionDto);
+            String etag = sessionController.findById("1", null).getHeaders().getETag();
+
+            // Act
+            ResponseEntity<?> unchanged = sessionController.findById("1", etag);
+            mockSessionDto.setVersion(1L);
+            ResponseEntity<?> changed = sessionController.findById("1", etag);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+            assertEquals(HttpStatus.OK, changed.getStatusCode());
+            assertEquals(mockSessionDto, changed.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return 404 when the session does not exist")
+        void shouldReturnNotFound() {
+            // Arrange
+            when(sessionService.findDtoById(2L)).thenReturn(null);
+
+            // Act
+            ResponseEntity<?> response = sessionController.findById("2", null);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("findViewById Tests")
+    class FindViewByIdTests {
+
+        private SessionView view;
+
+        @BeforeEach
+        void setUpCaller() {
+            UserDetailsImpl caller = UserDetailsImpl.builder().id(7L).username("test@test.com").admin(false).build();
+            SecurityContextHolder.getContext().setAuthentication(
+                    new UsernamePasswordAuthenticationToken(caller, null, caller.getAuthorities()));
+            view = new SessionView(1L, "Yoga Session", new Date(), "Test Description", 10, 0L,
+                    new TeacherDto(1L, "Doe", "John", null, null), 3, true, null, null);
+        }
+
+        @AfterEach
+        void clearCaller() {
+            SecurityContextHolder.clearContext();
+        }
+
+        @Test
+        @DisplayName("Should return the view of the session for the caller")
+        void shouldReturnViewForCaller() {
+            // Arrange
+            when(sessionService.findViewById(1L, 7L)).thenReturn(view);
+
+            // Act
+            ResponseEntity<?> response = sessionController.findViewById("1", null);
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(view, response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should answer 304 until the caller joins or leaves")
+        void shouldChangeETagWithParticipation() {
+            // Arrange
+            when(sessionService.findViewById(1L, 7L)).thenReturn(view);
+            String etag = sessionController.findViewById("1", null).getHeaders().getETag();
+
+            // Act
+            ResponseEntity<?> unchanged = sessionController.findViewById("1", etag);
+            view.setParticipating(false);
+            ResponseEntity<?> changed = sessionController.findViewById("1", etag);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+            assertEquals(HttpStatus.OK, changed.getStatusCode());
+        }
+
+        @Test
+        @DisplayName("Should return 404 when the session does not exist")
+        void shouldReturnNotFound() {
+            // Arrange
+            when(sessionService.findViewById(2L, 7L)).thenReturn(null);
+
+            // Act
+            ResponseEntity<?> response = sessionController.findViewById("2", null);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        }
+    }
+
+    @Nested
+    @DisplayName("findByIds Tests")
+    class FindByIdsTests {
+
+        @Test
+        @DisplayName("Should return the sessions of the distinct ids with the misses")
+        void shouldReturnItemsAndMisses() {
+            // Arrange
+            MultiGetResult<SessionDto> result = new MultiGetResult<>(mockSessionDtoList, Arrays.asList(4L));
+            when(sessionService.findDtosByIds(Arrays.asList(1L, 4L))).thenReturn(result);
+
+            // Act
+            ResponseEntity<?> response = sessionController.findByIds("1,4,4");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(result, response.getBody());
+            verifyNoInteractions(sessionMapper);
         }
     }
 
@@ -90,20 +240,86 @@ class SessionControllerTest {
     class FindAllTests {
 
         @Test
-        @DisplayName("Should return all sessions")
+        @DisplayName("Should return all sessions from the projection")
         void shouldReturnAllSessions() {
             // Arrange
-            when(sessionService.findAll()).thenReturn(mockSessionList);
-            when(sessionMapper.toDto(mockSessionList)).thenReturn(mockSessionDtoList);
+            when(sessionService.findAllSummaries()).thenReturn(mockSessionDtoList);
 
             // Act
-            ResponseEntity<?> response = sessionController.findAll();
+            ResponseEntity<?> response = sessionController.findAll(null, null, null, null, null, null, null, null);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
             assertEquals(mockSessionDtoList, response.getBody());
-            verify(sessionService).findAll();
-            verify(sessionMapper).toDto(mockSessionList);
+            verify(sessionService).findAllSummaries();
+            verifyNoInteractions(sessionMapper);
+        }
+
+        @Test
+        @DisplayName("Should page with cursors in the headers when a paging parameter is given")
+        void shouldPageWithCursorHeaders() {
+            // Arrange
+            RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(
+                    new MockHttpServletRequest("GET", "/api/session")));
+            String after = new SessionCursor(1000L, 1L).encode();
+            when(sessionService.findPage(eq(new SessionCursor(1000L, 1L)), eq(false), eq(2), any(SessionFilter.class)))
+                    .thenReturn(new SessionPage(mockSessionDtoList, "next", "prev"));
+
+            try {
+                // Act
+                ResponseEntity<?> response = sessionController.findAll(after, null, 2, null, null, 1L, true, null);
+
+                // Assert
+                assertTrue(response.getStatusCode().is2xxSuccessful());
+                assertEquals(mockSessionDtoList, response.getBody());
+                assertEquals("next", response.getHeaders().getFirst("X-Next-Cursor"));
+                assertEquals("prev", response.getHeaders().getFirst("X-Prev-Cursor"));
+                assertTrue(response.getHeaders().getFirst(HttpHeaders.LINK).contains("after=next"));
+                assertTrue(response.getHeaders().getFirst(HttpHeaders.LINK).contains("rel=\"prev\""));
+                verify(sessionService, never()).findAllSummaries();
+            } finally {
+                RequestContextHolder.resetRequestAttributes();
+            }
+        }
+
+        @Test
+        @DisplayName("Should reject a request with both cursors")
+        void shouldRejectBothCursors() {
+            // Act
+            ResponseEntity<?> response = sessionController.findAll("a", "b", null, null, null, null, null, null);
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(sessionService);
+        }
+    }
+
+    @Nested
+    @DisplayName("export Tests")
+    class ExportTests {
+
+        @Test
+        @DisplayName("Should write one JSON line per session")
+        @SuppressWarnings("unchecked")
+        void shouldWriteOneLinePerSession() throws Exception {
+            // Arrange
+            doAnswer(invocation -> {
+                Consumer<SessionDto> consumer = invocation.getArgument(0);
+                consumer.accept(mockSessionDto);
+                consumer.accept(mockSessionDto);
+                return null;
+            }).when(sessionService).forEachSession(any(Consumer.class));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            // Act
+            ResponseEntity<StreamingResponseBody> response = sessionController.export();
+            response.getBody().writeTo(out);
+
+            // Assert
+            assertEquals(MediaType.parseMediaType("application/x-ndjson"), response.getHeaders().getContentType());
+            String[] lines = out.toString("UTF-8").split("\n");
+            assertEquals(2, lines.length);
+            assertEquals("Yoga Session", objectMapper.readValue(lines[1], SessionDto.class).getName());
         }
     }
 
@@ -140,16 +356,39 @@ class SessionControllerTest {
         void shouldUpdateSessionSuccessfully() {
             // Arrange
             when(sessionMapper.toEntity(mockSessionDto)).thenReturn(mockSession);
-            when(sessionService.update(1L, mockSession)).thenReturn(mockSession);
+            when(sessionService.update(1L, 3L, mockSession)).thenReturn(mockSession.setVersion(4L));
             when(sessionMapper.toDto(mockSession)).thenReturn(mockSessionDto);
 
             // Act
-            ResponseEntity<?> response = sessionController.update("1", mockSessionDto);
+            ResponseEntity<?> response = sessionController.update("1", "\"1-3\"", mockSessionDto);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
             assertEquals(mockSessionDto, response.getBody());
-            verify(sessionService).update(1L, mockSession);
+            assertEquals("\"1-4\"", response.getHeaders().getETag());
+            verify(sessionService).update(1L, 3L, mockSession);
+        }
+
+        @Test
+        @DisplayName("Should require If-Match")
+        void shouldRequireIfMatch() {
+            // Act
+            ResponseEntity<?> response = sessionController.update("1", null, mockSessionDto);
+
+            // Assert
+            assertEquals(HttpStatus.PRECONDITION_REQUIRED, response.getStatusCode());
+            verifyNoInteractions(sessionService);
+        }
+
+        @Test
+        @DisplayName("Should reject an If-Match tag of another session")
+        void shouldRejectForeignTag() {
+            // Act
+            ResponseEntity<?> response = sessionController.update("1", "\"2-3\"", mockSessionDto);
+
+            // Assert
+            assertEquals(HttpStatus.PRECONDITION_FAILED, response.getStatusCode());
+            verifyNoInteractions(sessionService);
         }
     }
 
@@ -203,4 +442,58 @@ class SessionControllerTest {
             verify(sessionService).noLongerParticipate(1L, 2L);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("waitlist Tests")
+    class WaitlistTests {
+
+        @Test
+        @DisplayName("Should return the position of a user joining the waitlist")
+        void shouldJoinWaitlist() {
+            // Arrange
+            when(waitlistService.join(1L, 2L)).thenReturn(3);
+
+            // Act
+            ResponseEntity<?> response = sessionController.joinWaitlist("1", "2");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(new WaitlistPosition(1L, 2L, 3), response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return the current position in the waitlist")
+        void shouldReturnWaitlistPosition() {
+            // Arrange
+            when(waitlistService.position(1L, 2L)).thenReturn(1);
+
+            // Act
+            ResponseEntity<?> response = sessionController.waitlistPosition("1", "2");
+
+            // Assert
+            assertEquals(new WaitlistPosition(1L, 2L, 1), response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should leave the waitlist")
+        void shouldLeaveWaitlist() {
+            // Act
+            ResponseEntity<?> response = sessionController.leaveWaitlist("1", "2");
+
+            // Assert
+            assertTrue(response.getStatusCode().is2xxSuccessful());
+            verify(waitlistService).leave(1L, 2L);
+        }
+
+        @Test
+        @DisplayName("Should reject a malformed id")
+        void shouldRejectMalformedId() {
+            // Act
+            ResponseEntity<?> response = sessionController.joinWaitlist("abc", "2");
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(waitlistService);
+        }
+    }
+}
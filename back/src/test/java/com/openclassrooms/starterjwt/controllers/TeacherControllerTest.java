@@ -1,9 +1,11 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
 import com.openclassrooms.starterjwt.dto.TeacherDto;
 import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.services.TeacherService;
+import com.openclassrooms.starterjwt.services.TeacherSnapshot;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -12,15 +14,23 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,7 +49,6 @@ class TeacherControllerTest {
     private Teacher mockTeacher;
     private TeacherDto mockTeacherDto;
     private List<Teacher> mockTeacherList;
-    private List<TeacherDto> mockTeacherDtoList;
 
     @BeforeEach
     void setUp() {
@@ -59,7 +68,6 @@ class TeacherControllerTest {
         mockTeacherDto.setUpdatedAt(mockTeacher.getUpdatedAt());
 
         mockTeacherList = Arrays.asList(mockTeacher);
-        mockTeacherDtoList = Arrays.asList(mockTeacherDto);
     }
 
     @Nested
@@ -74,35 +82,111 @@ class TeacherControllerTest {
             when(teacherMapper.toDto(mockTeacher)).thenReturn(mockTeacherDto);
 
             // Act
-            ResponseEntity<?> response = teacherController.findById("1");
+            ResponseEntity<?> response = teacherController.findById("1", null);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
             assertEquals(mockTeacherDto, response.getBody());
+            assertNotNull(response.getHeaders().getETag());
             verify(teacherService).findById(1L);
             verify(teacherMapper).toDto(mockTeacher);
         }
+
+        @Test
+        @DisplayName("Should answer 304 without mapping when the ETag matches")
+        void shouldReturnNotModified() {
+            // Arrange
+            when(teacherService.findById(1L)).thenReturn(mockTeacher);
+            when(teacherMapper.toDto(mockTeacher)).thenReturn(mockTeacherDto);
+            String etag = teacherController.findById("1", null).getHeaders().getETag();
+
+            // Act
+            ResponseEntity<?> response = teacherController.findById("1", etag);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_MODIFIED, response.getStatusCode());
+            assertNull(response.getBody());
+            verify(teacherMapper, times(1)).toDto(mockTeacher);
+        }
+    }
+
+    @Nested
+    @DisplayName("findByIds Tests")
+    class FindByIdsTests {
+
+        @Test
+        @DisplayName("Should map the teachers found and keep the misses")
+        void shouldReturnItemsAndMisses() {
+            // Arrange
+            when(teacherService.findByIds(Arrays.asList(7L, 1L)))
+                    .thenReturn(new MultiGetResult<>(mockTeacherList, Collections.singletonList(7L)));
+            when(teacherMapper.toDto(mockTeacherList)).thenReturn(Collections.singletonList(mockTeacherDto));
+
+            // Act
+            ResponseEntity<?> response = teacherController.findByIds("7,1");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            assertEquals(new MultiGetResult<>(Collections.singletonList(mockTeacherDto), Collections.singletonList(7L)),
+                    response.getBody());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a malformed id list")
+        void shouldRejectMalformedIds() {
+            // Act
+            ResponseEntity<?> response = teacherController.findByIds("1,,2");
+
+            // Assert
+            assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+            verifyNoInteractions(teacherService);
+        }
     }
 
     @Nested
     @DisplayName("findAll Tests")
     class FindAllTests {
 
+        private TeacherSnapshot snapshot(long version, List<Teacher> teachers) {
+            return new TeacherSnapshot(version, teachers, "[{\"id\":1}]".getBytes(StandardCharsets.UTF_8));
+        }
+
         @Test
-        @DisplayName("Should return all teachers")
+        @DisplayName("Should return the pre-serialized list of all teachers")
         void shouldReturnAllTeachers() {
             // Arrange
-            when(teacherService.findAll()).thenReturn(mockTeacherList);
-            when(teacherMapper.toDto(mockTeacherList)).thenReturn(mockTeacherDtoList);
+            when(teacherService.snapshot()).thenReturn(snapshot(1L, mockTeacherList));
 
             // Act
-            ResponseEntity<?> response = teacherController.findAll();
+            ResponseEntity<?> response = teacherController.findAll(null);
 
             // Assert
             assertTrue(response.getStatusCode().is2xxSuccessful());
-            assertEquals(mockTeacherDtoList, response.getBody());
-            verify(teacherService).findAll();
-            verify(teacherMapper).toDto(mockTeacherList);
+            assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+            assertEquals("[{\"id\":1}]", new String((byte[]) response.getBody(), StandardCharsets.UTF_8));
+            assertNotNull(response.getHeaders().getETag());
+            verifyNoInteractions(teacherMapper);
+        }
+
+        @Test
+        @DisplayName("Should answer 304 while the snapshot holds the same teachers")
+        void shouldReturnNotModifiedUntilTeachersChange() {
+            // Arrange
+            Teacher added = new Teacher();
+            added.setId(2L);
+            added.setUpdatedAt(mockTeacher.getUpdatedAt());
+            when(teacherService.snapshot()).thenReturn(snapshot(1L, mockTeacherList), snapshot(2L, mockTeacherList),
+                    snapshot(3L, Arrays.asList(mockTeacher, added)));
+            String etag = teacherController.findAll(null).getHeaders().getETag();
+
+            // Act
+            ResponseEntity<?> unchanged = teacherController.findAll(etag);
+            ResponseEntity<?> changed = teacherController.findAll(etag);
+
+            // Assert
+            assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+            assertNull(unchanged.getBody());
+            assertEquals(HttpStatus.OK, changed.getStatusCode());
         }
     }
-}
\ No newline at end of file
+}
@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.controllers;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
 import com.openclassrooms.starterjwt.dto.UserDto;
 import com.openclassrooms.starterjwt.mapper.UserMapper;
 import com.openclassrooms.starterjwt.models.User;
@@ -12,6 +13,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -19,6 +21,8 @@ import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Collections;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -81,6 +85,44 @@ class UserControllerTest {
         }
     }
 
+    @Nested
+    @DisplayName("findByIds Tests")
+    class FindByIdsTests {
+
+        @Test
+        @DisplayName("Should map the users found and keep the misses")
+        void shouldReturnItemsAndMisses() {
+            // Arrange
+            when(userService.findByIds(Arrays.asList(1L, 9L)))
+                    .thenReturn(new MultiGetResult<>(Collections.singletonList(mockUser), Collections.singletonList(9L)));
+            when(userMapper.toDto(Collections.singletonList(mockUser))).thenReturn(Collections.singletonList(mockUserDto));
+
+            // Act
+            ResponseEntity<?> response = userController.findByIds("1,9,1");
+
+            // Assert
+            assertEquals(HttpStatus.OK, response.getStatusCode());
+            MultiGetResult<?> body = (MultiGetResult<?>) response.getBody();
+            assertEquals(Collections.singletonList(mockUserDto), body.getItems());
+            assertEquals(Collections.singletonList(9L), body.getMissing());
+        }
+
+        @Test
+        @DisplayName("Should return 400 for a malformed or oversized id list")
+        void shouldRejectBadIdList() {
+            // Arrange
+            StringBuilder tooMany = new StringBuilder("0");
+            for (int i = 1; i <= 100; i++) {
+                tooMany.append(',').append(i);
+            }
+
+            // Act & Assert
+            assertEquals(HttpStatus.BAD_REQUEST, userController.findByIds("1,a").getStatusCode());
+            assertEquals(HttpStatus.BAD_REQUEST, userController.findByIds(tooMany.toString()).getStatusCode());
+            verifyNoInteractions(userService);
+        }
+    }
+
     @Nested
     @DisplayName("delete Tests")
     class DeleteTests {
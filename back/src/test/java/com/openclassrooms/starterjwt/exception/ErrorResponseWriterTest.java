@@ -0,0 +1,85 @@
+package com.openclassrooms.starterjwt.exception;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ErrorResponseWriter Tests")
+class ErrorResponseWriterTest {
+
+    private ErrorResponseWriter errorResponseWriter;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        errorResponseWriter = new ErrorResponseWriter();
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Should write the status, content type and JSON body")
+    void shouldWriteErrorBody() throws Exception {
+        // Act
+        errorResponseWriter.write(response, HttpStatus.NOT_FOUND, "/api/session/42");
+
+        // Assert
+        assertEquals(404, response.getStatus());
+        assertEquals(MediaType.APPLICATION_JSON_VALUE, response.getContentType());
+        assertEquals(response.getContentAsByteArray().length, response.getContentLength());
+
+        Map<?, ?> body = new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+        assertEquals(404, body.get("status"));
+        assertEquals("Not Found", body.get("error"));
+        assertEquals("/api/session/42", body.get("path"));
+    }
+
+    @Test
+    @DisplayName("Should escape the path into valid JSON")
+    void shouldEscapePath() throws Exception {
+        // Arrange
+        String path = "/api/\"quoted\"\\back\nslash/é";
+
+        // Act
+        errorResponseWriter.write(response, HttpStatus.BAD_REQUEST, path);
+
+        // Assert
+        Map<?, ?> body = new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+        assertEquals(path, body.get("path"));
+    }
+
+    @Test
+    @DisplayName("Should escape a custom message into valid JSON")
+    void shouldEscapeCustomMessage() throws Exception {
+        // Arrange
+        String message = "Unknown \"ids\": [1, 2]";
+
+        // Act
+        errorResponseWriter.write(response, HttpStatus.BAD_REQUEST, message, "/api/session");
+
+        // Assert
+        Map<?, ?> body = new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+        assertEquals(400, body.get("status"));
+        assertEquals(message, body.get("message"));
+        assertEquals("/api/session", body.get("path"));
+    }
+
+    @Test
+    @DisplayName("Should render statuses without a predefined template")
+    void shouldRenderOtherStatuses() throws Exception {
+        // Act
+        errorResponseWriter.write(response, HttpStatus.CONFLICT, null);
+
+        // Assert
+        Map<?, ?> body = new ObjectMapper().readValue(response.getContentAsByteArray(), Map.class);
+        assertEquals(409, body.get("status"));
+        assertEquals("", body.get("path"));
+    }
+}
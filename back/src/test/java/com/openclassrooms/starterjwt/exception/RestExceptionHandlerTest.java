@@ -0,0 +1,80 @@
+package com.openclassrooms.starterjwt.exception;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RestExceptionHandler Tests")
+class RestExceptionHandlerTest {
+
+    private RestExceptionHandler restExceptionHandler;
+    private MockHttpServletRequest request;
+    private MockHttpServletResponse response;
+
+    @BeforeEach
+    void setUp() {
+        restExceptionHandler = new RestExceptionHandler(new ErrorResponseWriter());
+        request = new MockHttpServletRequest("GET", "/api/session/1");
+        request.setServletPath("/api/session/1");
+        response = new MockHttpServletResponse();
+    }
+
+    @Test
+    @DisplayName("Should render bad requests as 400")
+    void shouldRenderBadRequest() throws Exception {
+        // Act
+        restExceptionHandler.handleBadRequest(new BadRequestException(), request, response);
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"path\":\"/api/session/1\""));
+    }
+
+    @Test
+    @DisplayName("Should include the message of a bad request")
+    void shouldRenderBadRequestMessage() throws Exception {
+        // Act
+        restExceptionHandler.handleBadRequest(new BadRequestException("Unknown user ids: [7]"), request, response);
+
+        // Assert
+        assertEquals(400, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"message\":\"Unknown user ids: [7]\""));
+    }
+
+    @Test
+    @DisplayName("Should render missing resources as 404")
+    void shouldRenderNotFound() throws Exception {
+        // Act
+        restExceptionHandler.handleNotFound(request, response);
+
+        // Assert
+        assertEquals(404, response.getStatus());
+    }
+
+    @Test
+    @DisplayName("Should render conflicts as 409 with their message")
+    void shouldRenderConflict() throws Exception {
+        // Act
+        restExceptionHandler.handleConflict(new ConflictException("Session is full"), request, response);
+
+        // Assert
+        assertEquals(409, response.getStatus());
+        assertTrue(response.getContentAsString().contains("\"message\":\"Session is full\""));
+    }
+
+    @Test
+    @DisplayName("Should answer 503 with Retry-After when password hashing is saturated")
+    void shouldRenderServiceUnavailableWithRetryAfter() throws Exception {
+        // Act
+        restExceptionHandler.handleServiceUnavailable(new ServiceUnavailableException(2), request, response);
+
+        // Assert
+        assertEquals(503, response.getStatus());
+        assertEquals("2", response.getHeader(HttpHeaders.RETRY_AFTER));
+    }
+}
@@ -3,12 +3,18 @@ package com.openclassrooms.starterjwt.integration;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.request.SignupRequest;
+import com.openclassrooms.starterjwt.payload.request.TokenRefreshRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import com.openclassrooms.starterjwt.payload.response.TokenRefreshResponse;
 import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 class AuthIntegrationTest extends BaseIntegrationTest {
@@ -53,4 +59,41 @@ class AuthIntegrationTest extends BaseIntegrationTest {
         assertNotNull(loginResponse.getBody());
         assertNotNull(loginResponse.getBody().getToken());
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldRefreshThenLogout() {
+        // Arrange
+        LoginRequest loginRequest = new LoginRequest();
+        loginRequest.setEmail(regularUser.getEmail());
+        loginRequest.setPassword("user123");
+        JwtResponse login = restTemplate.postForEntity(baseUrl + "/auth/login", loginRequest, JwtResponse.class).getBody();
+        assertNotNull(login);
+        assertNotNull(login.getRefreshToken());
+
+        TokenRefreshRequest refreshRequest = new TokenRefreshRequest();
+        refreshRequest.setRefreshToken(login.getRefreshToken());
+
+        // Act - Refresh, then replay the consumed refresh token
+        ResponseEntity<TokenRefreshResponse> refreshResponse = restTemplate.postForEntity(
+                baseUrl + "/auth/refresh", refreshRequest, TokenRefreshResponse.class);
+        ResponseEntity<String> replayResponse = restTemplate.postForEntity(
+                baseUrl + "/auth/refresh", refreshRequest, String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, refreshResponse.getStatusCode());
+        assertNotEquals(login.getRefreshToken(), refreshResponse.getBody().getRefreshToken());
+        assertEquals(HttpStatus.FORBIDDEN, replayResponse.getStatusCode());
+
+        // Act - Logout revokes the access token
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(refreshResponse.getBody().getToken());
+        ResponseEntity<String> logoutResponse = restTemplate.exchange(
+                baseUrl + "/auth/logout", HttpMethod.POST, new HttpEntity<>(headers), String.class);
+        ResponseEntity<String> afterLogout = restTemplate.exchange(
+                baseUrl + "/user/" + regularUser.getId(), HttpMethod.GET, new HttpEntity<>(headers), String.class);
+
+        // Assert
+        assertEquals(HttpStatus.OK, logoutResponse.getStatusCode());
+        assertEquals(HttpStatus.UNAUTHORIZED, afterLogout.getStatusCode());
+    }
+}
@@ -6,6 +6,7 @@ import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
@@ -25,7 +26,13 @@ import java.util.Date;
 import java.util.List;
 import java.util.concurrent.ConcurrentHashMap;
 
-@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // every test logs in from the same address with the same few accounts
+        "oc.app.loginEmailCapacity=1000",
+        "oc.app.loginAddressCapacity=1000",
+        // promotions run when a test calls the promoter, never in the middle of a statement count
+        "oc.app.waitlistPromotionDelayMs=3600000"
+})
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
 public abstract class BaseIntegrationTest {
 
@@ -41,6 +48,9 @@ public abstract class BaseIntegrationTest {
     @Autowired
     protected TeacherRepository teacherRepository;
 
+    @Autowired
+    protected RefreshTokenRepository refreshTokenRepository;
+
     @Autowired
     protected SessionRepository sessionRepository;
 
@@ -114,6 +124,7 @@ public abstract class BaseIntegrationTest {
         for (Long id : ids) {
             try {
                 if (entityClass == User.class) {
+                    refreshTokenRepository.deleteByUserId(id);
                     userRepository.deleteById(id);
                 } else if (entityClass == Teacher.class) {
                     teacherRepository.deleteById(id);
@@ -0,0 +1,134 @@
+package com.openclassrooms.starterjwt.integration;
+
+import com.openclassrooms.starterjwt.dto.CacheStatistics;
+import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.services.SessionService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.*;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@ActiveProfiles("cache")
+class CacheIntegrationTest extends BaseIntegrationTest {
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Statistics statistics;
+
+    @BeforeEach
+    void setUpStatistics() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    @Test
+    void shouldLoadTeacherFromSecondLevelCache() {
+        teacherRepository.findById(defaultTeacher.getId());
+        long statements = statistics.getPrepareStatementCount();
+        long hits = statistics.getDomainDataRegionStatistics("teachers").getHitCount();
+
+        assertTrue(teacherRepository.findById(defaultTeacher.getId()).isPresent());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(hits + 1, statistics.getDomainDataRegionStatistics("teachers").getHitCount());
+    }
+
+    @Test
+    void shouldSeeTeachersWrittenOutsideHibernateInListVersion() {
+        long before = teacherRepository.findListVersion().getCount();
+
+        jdbcTemplate.update("insert into TEACHERS (first_name, last_name, created_at, updated_at) "
+                + "values ('Script', 'Teacher', current_timestamp, current_timestamp)");
+        try {
+            assertEquals(before + 1, teacherRepository.findListVersion().getCount());
+        } finally {
+            jdbcTemplate.update("delete from TEACHERS where first_name = 'Script' and last_name = 'Teacher'");
+        }
+    }
+
+    @Test
+    void shouldResolveEmailFromNaturalIdCache() {
+        userRepository.findByEmail(regularUser.getEmail());
+        long statements = statistics.getPrepareStatementCount();
+        long hits = statistics.getNaturalIdCacheHitCount();
+
+        assertEquals(regularUser.getId(), userRepository.findByEmail(regularUser.getEmail()).get().getId());
+
+        assertEquals(statements, statistics.getPrepareStatementCount());
+        assertEquals(hits + 1, statistics.getNaturalIdCacheHitCount());
+        assertFalse(userRepository.findByEmail("nobody@test.com").isPresent());
+    }
+
+    @Test
+    void shouldSeeNewParticipantAfterRosterWasCached() {
+        Session session = sessionRepository.save(Session.builder()
+                .name("Cached Session")
+                .description("Test Description")
+                .date(new Date())
+                .teacher(defaultTeacher)
+                .users(new ArrayList<>())
+                .build());
+        trackCreatedEntity(Session.class, session.getId());
+        assertEquals(0, rosterSize(session.getId()));
+
+        sessionService.participate(session.getId(), regularUser.getId());
+
+        assertEquals(1, rosterSize(session.getId()));
+        sessionService.noLongerParticipate(session.getId(), regularUser.getId());
+        assertEquals(0, rosterSize(session.getId()));
+    }
+
+    @Test
+    void shouldReportRegionStatisticsToAdminsOnly() {
+        ResponseEntity<CacheStatistics> adminResponse = restTemplate.exchange(
+                baseUrl + "/admin/cache",
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(getAdminToken())),
+                CacheStatistics.class
+        );
+        ResponseEntity<String> userResponse = restTemplate.exchange(
+                baseUrl + "/admin/cache",
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(getUserToken())),
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, adminResponse.getStatusCode());
+        assertTrue(adminResponse.getBody().getRegions().stream().anyMatch(region -> region.getName().equals("teachers")));
+        assertEquals(HttpStatus.FORBIDDEN, userResponse.getStatusCode());
+    }
+
+    // Each call loads the session and its roster in a fresh persistence context
+    private int rosterSize(Long sessionId) {
+        Integer size = new TransactionTemplate(transactionManager)
+                .execute(status -> sessionRepository.findById(sessionId).get().getUsers().size());
+        return size;
+    }
+
+    private HttpHeaders createAuthHeaders(String token) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(token);
+        return headers;
+    }
+}
@@ -1,18 +1,59 @@
 package com.openclassrooms.starterjwt.integration;
 
 import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionView;
+import com.openclassrooms.starterjwt.dto.WaitlistPosition;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
 import com.openclassrooms.starterjwt.models.Session;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistPromoter;
+import com.openclassrooms.starterjwt.services.WaitlistService;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 
+import javax.persistence.EntityManagerFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Date;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class SessionIntegrationTest extends BaseIntegrationTest {
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistRepository waitlistRepository;
+
     @Test
     void shouldCreateAndRetrieveSession() {
         // Get admin token
@@ -159,6 +200,15 @@ class SessionIntegrationTest extends BaseIntegrationTest {
         );
         assertEquals(HttpStatus.OK, participateResponse.getStatusCode());
 
+        // Participating twice is rejected by the primary key
+        ResponseEntity<String> duplicateResponse = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId() + "/participate/" + regularUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(userToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.BAD_REQUEST, duplicateResponse.getStatusCode());
+
         // Verify participation
         ResponseEntity<SessionDto> getResponse = restTemplate.exchange(
                 baseUrl + "/session/" + session.getId(),
@@ -204,10 +254,12 @@ class SessionIntegrationTest extends BaseIntegrationTest {
         updateDto.setTeacher_id(defaultTeacher.getId());
         updateDto.setDate(new Date());
 
+        HttpHeaders headers = createAuthHeaders(adminToken);
+        headers.setIfMatch("\"" + initialSession.getId() + "-" + initialSession.getVersion() + "\"");
         ResponseEntity<SessionDto> updateResponse = restTemplate.exchange(
                 baseUrl + "/session/" + initialSession.getId(),
                 HttpMethod.PUT,
-                new HttpEntity<>(updateDto, createAuthHeaders(adminToken)),
+                new HttpEntity<>(updateDto, headers),
                 SessionDto.class
         );
 
@@ -215,7 +267,546 @@ class SessionIntegrationTest extends BaseIntegrationTest {
         assertNotNull(updateResponse.getBody());
         assertEquals("Updated Session Name", updateResponse.getBody().getName());
         assertEquals("Updated Description", updateResponse.getBody().getDescription());
+        assertEquals(initialSession.getVersion() + 1, updateResponse.getBody().getVersion());
+    }
+
+    @Test
+    void shouldRejectUpdatePreparedBeforeParticipation() {
+        String adminToken = getAdminToken();
+        SessionDto session = createTestSession(adminToken);
+        trackCreatedEntity(Session.class, session.getId());
+
+        String etag = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        ).getHeaders().getETag();
+
+        restTemplate.exchange(
+                baseUrl + "/session/" + session.getId() + "/participate/" + regularUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                Void.class
+        );
+
+        SessionDto updateDto = new SessionDto();
+        updateDto.setName("Stale Update");
+        updateDto.setDescription("Would drop the new participant");
+        updateDto.setTeacher_id(defaultTeacher.getId());
+        updateDto.setDate(new Date());
+
+        ResponseEntity<String> unconditional = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(updateDto, createAuthHeaders(adminToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.PRECONDITION_REQUIRED, unconditional.getStatusCode());
+
+        HttpHeaders stale = createAuthHeaders(adminToken);
+        stale.setIfMatch(etag);
+        ResponseEntity<String> conflict = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(updateDto, stale),
+                String.class
+        );
+        assertEquals(HttpStatus.PRECONDITION_FAILED, conflict.getStatusCode());
+
+        SessionDto current = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        ).getBody();
+        assertEquals("Test Session", current.getName());
+        assertTrue(current.getUsers().contains(regularUser.getId()));
+    }
+
+    @Test
+    void shouldKeepParticipantsWhenUpdateLeavesUsersOut() {
+        String adminToken = getAdminToken();
+        SessionDto session = createTestSession(adminToken);
+        trackCreatedEntity(Session.class, session.getId());
+        restTemplate.exchange(
+                baseUrl + "/session/" + session.getId() + "/participate/" + regularUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                Void.class
+        );
+        String etag = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        ).getHeaders().getETag();
+
+        // What the admin form sends: no users
+        SessionDto updateDto = new SessionDto();
+        updateDto.setName("Renamed Session");
+        updateDto.setDescription("Edited from the form");
+        updateDto.setTeacher_id(defaultTeacher.getId());
+        updateDto.setDate(new Date());
+        HttpHeaders headers = createAuthHeaders(adminToken);
+        headers.setIfMatch(etag);
+        ResponseEntity<SessionDto> updated = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.PUT,
+                new HttpEntity<>(updateDto, headers),
+                SessionDto.class
+        );
+
+        assertEquals(HttpStatus.OK, updated.getStatusCode());
+        assertEquals("Renamed Session", updated.getBody().getName());
+        assertTrue(participationRepository.existsById(new ParticipationId(session.getId(), regularUser.getId())));
+        assertEquals(1, sessionRepository.findSeatsById(session.getId()).get().getSeatsTaken());
+        SessionDto current = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        ).getBody();
+        assertEquals(Collections.singletonList(regularUser.getId()), current.getUsers());
+    }
+
+    @Test
+    void shouldWalkSessionPagesWithCursors() {
+        String adminToken = getAdminToken();
+        long base = 3786912000000L; // 2090-01-01, clear of the sessions other tests create
+        for (int i = 0; i < 3; i++) {
+            SessionDto sessionDto = new SessionDto();
+            sessionDto.setName("Paged Session " + i);
+            sessionDto.setDescription("Test Description");
+            sessionDto.setTeacher_id(defaultTeacher.getId());
+            sessionDto.setDate(new Date(base + i * 86_400_000L));
+            ResponseEntity<SessionDto> created = restTemplate.exchange(
+                    baseUrl + "/session",
+                    HttpMethod.POST,
+                    new HttpEntity<>(sessionDto, createAuthHeaders(adminToken)),
+                    SessionDto.class
+            );
+            trackCreatedEntity(Session.class, created.getBody().getId());
+        }
+
+        String filter = "?limit=2&from=2090-01-01T00:00:00.000Z";
+        ResponseEntity<List<SessionDto>> first = restTemplate.exchange(
+                baseUrl + "/session" + filter,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                new ParameterizedTypeReference<List<SessionDto>>() {}
+        );
+        assertEquals(HttpStatus.OK, first.getStatusCode());
+        assertEquals(2, first.getBody().size());
+        assertEquals("Paged Session 0", first.getBody().get(0).getName());
+        assertNull(first.getHeaders().getFirst("X-Prev-Cursor"));
+        String next = first.getHeaders().getFirst("X-Next-Cursor");
+        assertNotNull(next);
+
+        ResponseEntity<List<SessionDto>> second = restTemplate.exchange(
+                baseUrl + "/session" + filter + "&after=" + next,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                new ParameterizedTypeReference<List<SessionDto>>() {}
+        );
+        assertEquals(1, second.getBody().size());
+        assertEquals("Paged Session 2", second.getBody().get(0).getName());
+        assertNull(second.getHeaders().getFirst("X-Next-Cursor"));
+
+        ResponseEntity<List<SessionDto>> back = restTemplate.exchange(
+                baseUrl + "/session" + filter + "&before=" + second.getHeaders().getFirst("X-Prev-Cursor"),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                new ParameterizedTypeReference<List<SessionDto>>() {}
+        );
+        assertEquals("Paged Session 0", back.getBody().get(0).getName());
+        assertEquals("Paged Session 1", back.getBody().get(1).getName());
+    }
+
+    @Test
+    void shouldExportSessionsAsNdjson() {
+        String adminToken = getAdminToken();
+        SessionDto session = createTestSession(adminToken);
+        trackCreatedEntity(Session.class, session.getId());
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/session/export",
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertTrue(response.getHeaders().getContentType().includes(MediaType.parseMediaType("application/x-ndjson")));
+        assertTrue(response.getBody().endsWith("\n"));
+        assertTrue(response.getBody().contains("\"id\":" + session.getId() + ","));
+    }
+
+    @Test
+    void shouldExportSessionsWithParticipantsInOneQueryPerBatch() {
+        String adminToken = getAdminToken();
+        long first = Math.min(adminUser.getId(), regularUser.getId());
+        long last = Math.max(adminUser.getId(), regularUser.getId());
+        for (int i = 0; i < 3; i++) {
+            postSession(adminToken, Arrays.asList(first, last));
+        }
+
+        List<String> body = new ArrayList<>();
+        long statements = statementsFor(() -> body.add(restTemplate.exchange(
+                baseUrl + "/session/export",
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        ).getBody()));
+
+        // The sessions and the participants of the batch, however many sessions have participants
+        assertEquals(2, statements);
+        assertTrue(body.get(0).contains("\"users\":[" + first + "," + last + "]"));
+    }
+
+    @Test
+    void shouldResolveParticipantsWithOneQueryOnCreateAndUpdate() {
+        String adminToken = getAdminToken();
+        User extra = new User();
+        extra.setEmail("extra@test.com");
+        extra.setFirstName("Extra");
+        extra.setLastName("User");
+        extra.setPassword("unused");
+        extra = userRepository.save(extra);
+        trackCreatedEntity(User.class, extra.getId());
+
+        List<Long> one = Collections.singletonList(adminUser.getId());
+        List<Long> three = Arrays.asList(adminUser.getId(), regularUser.getId(), extra.getId());
+
+        // Each extra participant may only cost its PARTICIPATE insert, not a select
+        long createOne = statementsFor(() -> postSession(adminToken, one));
+        long createThree = statementsFor(() -> postSession(adminToken, three));
+        assertEquals(2, createThree - createOne);
+
+        SessionDto target = postSession(adminToken, Collections.emptyList());
+        SessionDto other = postSession(adminToken, Collections.emptyList());
+        long updateOne = statementsFor(() -> putSession(adminToken, target.getId(), one));
+        long updateThree = statementsFor(() -> putSession(adminToken, other.getId(), three));
+        assertEquals(2, updateThree - updateOne);
+    }
+
+    @Test
+    void shouldServeDetailViewWithOneQuery() {
+        String userToken = getUserToken();
+        SessionDto session = postSession(getAdminToken(), Collections.singletonList(regularUser.getId()));
+        String viewUrl = baseUrl + "/session/" + session.getId() + "/view";
+
+        List<ResponseEntity<SessionView>> views = new ArrayList<>();
+        long statements = statementsFor(() -> views.add(restTemplate.exchange(
+                viewUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(userToken)),
+                SessionView.class
+        )));
+        ResponseEntity<SessionView> adminView = restTemplate.exchange(
+                viewUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(getAdminToken())),
+                SessionView.class
+        );
+
+        assertEquals(1, statements);
+        SessionView userView = views.get(0).getBody();
+        assertEquals(HttpStatus.OK, views.get(0).getStatusCode());
+        assertEquals(1, userView.getParticipantCount());
+        assertTrue(userView.isParticipating());
+        assertEquals(defaultTeacher.getFirstName(), userView.getTeacher().getFirstName());
+        assertFalse(adminView.getBody().isParticipating());
+        assertNotEquals(views.get(0).getHeaders().getETag(), adminView.getHeaders().getETag());
+    }
+
+    @Test
+    void shouldRejectUnknownParticipants() {
+        String adminToken = getAdminToken();
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Test Session");
+        sessionDto.setDescription("Test Description");
+        sessionDto.setTeacher_id(defaultTeacher.getId());
+        sessionDto.setDate(new Date());
+        sessionDto.setUsers(Arrays.asList(adminUser.getId(), 987654L));
+
+        ResponseEntity<String> response = restTemplate.exchange(
+                baseUrl + "/session",
+                HttpMethod.POST,
+                new HttpEntity<>(sessionDto, createAuthHeaders(adminToken)),
+                String.class
+        );
+
+        assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+        assertTrue(response.getBody().contains("Unknown user ids: [987654]"));
+    }
+
+    @Test
+    void shouldRevalidateSessionWithETag() {
+        String adminToken = getAdminToken();
+        SessionDto session = createTestSession(adminToken);
+        trackCreatedEntity(Session.class, session.getId());
+
+        ResponseEntity<SessionDto> first = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        );
+        String etag = first.getHeaders().getETag();
+        assertNotNull(etag);
+
+        HttpHeaders conditional = createAuthHeaders(adminToken);
+        conditional.setIfNoneMatch(etag);
+        ResponseEntity<String> unchanged = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(conditional),
+                String.class
+        );
+        assertEquals(HttpStatus.NOT_MODIFIED, unchanged.getStatusCode());
+        assertNull(unchanged.getBody());
+
+        restTemplate.exchange(
+                baseUrl + "/session/" + session.getId() + "/participate/" + regularUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                Void.class
+        );
+        ResponseEntity<SessionDto> changed = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(conditional),
+                SessionDto.class
+        );
+        assertEquals(HttpStatus.OK, changed.getStatusCode());
+        assertTrue(changed.getBody().getUsers().contains(regularUser.getId()));
+        assertNotEquals(etag, changed.getHeaders().getETag());
+    }
+
+    @Test
+    void shouldNeverOverbookUnderConcurrentParticipation() throws Exception {
+        int capacity = 3;
+        int contenders = 16;
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Popular Session");
+        sessionDto.setDescription("Test Description");
+        sessionDto.setTeacher_id(defaultTeacher.getId());
+        sessionDto.setDate(new Date());
+        sessionDto.setCapacity(capacity);
+        ResponseEntity<SessionDto> created = restTemplate.exchange(
+                baseUrl + "/session",
+                HttpMethod.POST,
+                new HttpEntity<>(sessionDto, createAuthHeaders(getAdminToken())),
+                SessionDto.class
+        );
+        Long sessionId = created.getBody().getId();
+        trackCreatedEntity(Session.class, sessionId);
+
+        List<Long> userIds = new ArrayList<>();
+        for (int i = 0; i < contenders; i++) {
+            User user = new User();
+            user.setEmail("contender" + i + "@test.com");
+            user.setFirstName("Contender");
+            user.setLastName("User");
+            user.setPassword("unused");
+            user = userRepository.save(user);
+            trackCreatedEntity(User.class, user.getId());
+            userIds.add(user.getId());
+        }
+
+        // Every contender is parked on the latch so that they all click at once
+        ExecutorService executor = Executors.newFixedThreadPool(contenders);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger seated = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        List<Future<?>> attempts = new ArrayList<>();
+        try {
+            for (Long userId : userIds) {
+                attempts.add(executor.submit(() -> {
+                    start.await();
+                    try {
+                        sessionService.participate(sessionId, userId);
+                        seated.incrementAndGet();
+                    } catch (ConflictException e) {
+                        refused.incrementAndGet();
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> attempt : attempts) {
+                attempt.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(capacity, seated.get());
+        assertEquals(contenders - capacity, refused.get());
+        assertEquals(capacity, sessionRepository.findSeatsById(sessionId).get().getSeatsTaken());
+        List<ParticipationId> participations = participationRepository.findIdsBySessionIds(
+                Collections.singletonList(sessionId));
+        assertEquals(capacity, participations.size());
+
+        // A seat given back can be taken again
+        sessionService.noLongerParticipate(sessionId, participations.get(0).getUserId());
+        sessionService.noLongerParticipate(sessionId, participations.get(1).getUserId());
+        sessionService.participate(sessionId, participations.get(0).getUserId());
+        assertEquals(capacity - 1, sessionRepository.findSeatsById(sessionId).get().getSeatsTaken());
+    }
+
+    @Test
+    void shouldPromoteWaitlistedUserWhenSeatFreesUp() {
+        String adminToken = getAdminToken();
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Single Seat Session");
+        sessionDto.setDescription("Test Description");
+        sessionDto.setTeacher_id(defaultTeacher.getId());
+        sessionDto.setDate(new Date());
+        sessionDto.setCapacity(1);
+        sessionDto.setUsers(Collections.singletonList(regularUser.getId()));
+        ResponseEntity<SessionDto> created = restTemplate.exchange(
+                baseUrl + "/session",
+                HttpMethod.POST,
+                new HttpEntity<>(sessionDto, createAuthHeaders(adminToken)),
+                SessionDto.class
+        );
+        Long sessionId = created.getBody().getId();
+        trackCreatedEntity(Session.class, sessionId);
+        String waitlistUrl = baseUrl + "/session/" + sessionId + "/waitlist/" + adminUser.getId();
+
+        ResponseEntity<String> full = restTemplate.exchange(
+                baseUrl + "/session/" + sessionId + "/participate/" + adminUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.CONFLICT, full.getStatusCode());
+
+        ResponseEntity<WaitlistPosition> joined = restTemplate.exchange(
+                waitlistUrl,
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                WaitlistPosition.class
+        );
+        assertEquals(HttpStatus.OK, joined.getStatusCode());
+        assertEquals(1, joined.getBody().getPosition());
+
+        restTemplate.exchange(
+                baseUrl + "/session/" + sessionId + "/participate/" + regularUser.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                Void.class
+        );
+        ResponseEntity<String> queueJump = restTemplate.exchange(
+                baseUrl + "/session/" + sessionId + "/participate/" + regularUser.getId(),
+                HttpMethod.POST,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.CONFLICT, queueJump.getStatusCode());
+        waitlistPromoter.promotePending();
+
+        ResponseEntity<SessionDto> promoted = restTemplate.exchange(
+                baseUrl + "/session/" + sessionId,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                SessionDto.class
+        );
+        assertEquals(Collections.singletonList(adminUser.getId()), promoted.getBody().getUsers());
+        ResponseEntity<String> position = restTemplate.exchange(
+                waitlistUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, position.getStatusCode());
     }
+
+    @Test
+    void shouldDeleteTheWaitlistWithTheSession() {
+        String adminToken = getAdminToken();
+        Session session = sessionRepository.save(Session.builder()
+                .name("Deleted Waitlisted Session")
+                .description("Test Description")
+                .date(new Date())
+                .teacher(defaultTeacher)
+                .capacity(1)
+                .build());
+        trackCreatedEntity(Session.class, session.getId());
+        sessionService.participate(session.getId(), regularUser.getId());
+        assertEquals(1, waitlistService.join(session.getId(), adminUser.getId()));
+        String waitlistUrl = baseUrl + "/session/" + session.getId() + "/waitlist/" + adminUser.getId();
+
+        ResponseEntity<Void> deleted = restTemplate.exchange(
+                baseUrl + "/session/" + session.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                Void.class
+        );
+
+        assertEquals(HttpStatus.OK, deleted.getStatusCode());
+        assertTrue(waitlistRepository.findBySessionId(session.getId()).isEmpty());
+        ResponseEntity<String> position = restTemplate.exchange(
+                waitlistUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(adminToken)),
+                String.class
+        );
+        assertEquals(HttpStatus.NOT_FOUND, position.getStatusCode());
+    }
+
+    private long statementsFor(Runnable action) {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+        try {
+            action.run();
+            return statistics.getPrepareStatementCount();
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
+    private SessionDto postSession(String token, List<Long> users) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Counted Session");
+        sessionDto.setDescription("Test Description");
+        sessionDto.setTeacher_id(defaultTeacher.getId());
+        sessionDto.setDate(new Date());
+        sessionDto.setUsers(users);
+
+        ResponseEntity<SessionDto> response = restTemplate.exchange(
+                baseUrl + "/session",
+                HttpMethod.POST,
+                new HttpEntity<>(sessionDto, createAuthHeaders(token)),
+                SessionDto.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        trackCreatedEntity(Session.class, response.getBody().getId());
+        return response.getBody();
+    }
+
+    private void putSession(String token, Long id, List<Long> users) {
+        SessionDto sessionDto = new SessionDto();
+        sessionDto.setName("Counted Session");
+        sessionDto.setDescription("Updated Description");
+        sessionDto.setTeacher_id(defaultTeacher.getId());
+        sessionDto.setDate(new Date());
+        sessionDto.setUsers(users);
+
+        HttpHeaders headers = createAuthHeaders(token);
+        headers.setIfMatch("\"" + id + "-0\"");
+        ResponseEntity<SessionDto> response = restTemplate.exchange(
+                baseUrl + "/session/" + id,
+                HttpMethod.PUT,
+                new HttpEntity<>(sessionDto, headers),
+                SessionDto.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
     private SessionDto createTestSession(String token) {
         SessionDto sessionDto = new SessionDto();
         sessionDto.setName("Test Session");
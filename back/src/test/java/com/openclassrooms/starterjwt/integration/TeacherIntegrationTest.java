@@ -62,6 +62,33 @@ class TeacherIntegrationTest extends BaseIntegrationTest {
                 .anyMatch(t -> t.getFirstName().equals("Jane") && t.getLastName().equals("Doe")));
     }
 
+    @Test
+    void shouldServeTeacherSavedAfterTheSnapshotWasBuilt() {
+        String token = getUserToken();
+        restTemplate.exchange(
+                baseUrl + "/teacher",
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(token)),
+                String.class
+        );
+
+        Teacher newTeacher = new Teacher();
+        newTeacher.setFirstName("Late");
+        newTeacher.setLastName("Comer");
+        Teacher savedTeacher = teacherRepository.save(newTeacher);
+        trackCreatedEntity(Teacher.class, savedTeacher.getId());
+
+        ResponseEntity<TeacherDto> response = restTemplate.exchange(
+                baseUrl + "/teacher/" + savedTeacher.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(token)),
+                TeacherDto.class
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals("Comer", response.getBody().getLastName());
+    }
+
     @Test
     void shouldReturnNotFoundForInvalidTeacherId() {
         // Get user token
@@ -1,14 +1,28 @@
 package com.openclassrooms.starterjwt.integration;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.dto.SessionDto;
 import com.openclassrooms.starterjwt.dto.UserDto;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
 import com.openclassrooms.starterjwt.payload.request.LoginRequest;
 import com.openclassrooms.starterjwt.payload.response.JwtResponse;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.services.SessionService;
+import com.openclassrooms.starterjwt.services.WaitlistPromoter;
+import com.openclassrooms.starterjwt.services.WaitlistService;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.*;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.stream.Collectors;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class UserIntegrationTest extends BaseIntegrationTest {
@@ -16,6 +30,37 @@ class UserIntegrationTest extends BaseIntegrationTest {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private SessionService sessionService;
+
+    @Autowired
+    private ParticipationRepository participationRepository;
+
+    @Autowired
+    private WaitlistService waitlistService;
+
+    @Autowired
+    private WaitlistPromoter waitlistPromoter;
+
+    @Test
+    void shouldGetSeveralUsersInRequestOrder() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setBearerAuth(getUserToken());
+        long unknownId = regularUser.getId() + adminUser.getId() + 1000;
+
+        ResponseEntity<MultiGetResult<UserDto>> response = restTemplate.exchange(
+                baseUrl + "/user?ids=" + regularUser.getId() + "," + unknownId + "," + adminUser.getId() + "," + regularUser.getId(),
+                HttpMethod.GET,
+                new HttpEntity<>(headers),
+                new ParameterizedTypeReference<MultiGetResult<UserDto>>() {}
+        );
+
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        assertEquals(Arrays.asList(regularUser.getId(), adminUser.getId()),
+                response.getBody().getItems().stream().map(UserDto::getId).collect(Collectors.toList()));
+        assertEquals(Collections.singletonList(unknownId), response.getBody().getMissing());
+    }
+
     @Test
     void shouldManageUserLifecycle() {
         // Create test user
@@ -119,6 +164,65 @@ class UserIntegrationTest extends BaseIntegrationTest {
         assertEquals(HttpStatus.UNAUTHORIZED, getDeletedUserResponse.getStatusCode());
     }
 
+    @Test
+    void shouldDeleteParticipatingUserAndFreeTheSeat() {
+        User user = createTestUser("participant@test.com", "Participant");
+        Session session = sessionRepository.save(Session.builder()
+                .name("Seat Holder Session")
+                .description("Test Description")
+                .date(new Date())
+                .teacher(defaultTeacher)
+                .capacity(2)
+                .build());
+        trackCreatedEntity(Session.class, session.getId());
+        sessionService.participate(session.getId(), user.getId());
+        sessionService.participate(session.getId(), regularUser.getId());
+        String token = loginUser("participant@test.com", "password123");
+
+        ResponseEntity<String> deleteResponse = restTemplate.exchange(
+                baseUrl + "/user/" + user.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(createAuthHeaders(token)),
+                String.class
+        );
+
+        assertEquals(HttpStatus.OK, deleteResponse.getStatusCode());
+        assertFalse(userRepository.existsById(user.getId()));
+        assertFalse(participationRepository.existsById(new ParticipationId(session.getId(), user.getId())));
+        assertTrue(participationRepository.existsById(new ParticipationId(session.getId(), regularUser.getId())));
+        assertEquals(1, sessionRepository.findSeatsById(session.getId()).get().getSeatsTaken());
+    }
+
+    @Test
+    void shouldHandTheSeatOfADeletedUserToTheWaitlist() {
+        User user = createTestUser("leaver@test.com", "Leaver");
+        Session session = sessionRepository.save(Session.builder()
+                .name("Waitlisted Session")
+                .description("Test Description")
+                .date(new Date())
+                .teacher(defaultTeacher)
+                .capacity(1)
+                .build());
+        trackCreatedEntity(Session.class, session.getId());
+        sessionService.participate(session.getId(), user.getId());
+        waitlistService.join(session.getId(), regularUser.getId());
+        String adminToken = getAdminToken();
+        String sessionUrl = baseUrl + "/session/" + session.getId();
+        // Puts the roster in the session caches before the deletion
+        assertEquals(Collections.singletonList(user.getId()), getSession(sessionUrl, adminToken).getUsers());
+
+        restTemplate.exchange(
+                baseUrl + "/user/" + user.getId(),
+                HttpMethod.DELETE,
+                new HttpEntity<>(createAuthHeaders(loginUser("leaver@test.com", "password123"))),
+                String.class
+        );
+
+        assertEquals(Collections.emptyList(), getSession(sessionUrl, adminToken).getUsers());
+        waitlistPromoter.promotePending();
+        assertEquals(Collections.singletonList(regularUser.getId()), getSession(sessionUrl, adminToken).getUsers());
+    }
+
     @Test
     void shouldNotAllowDeletingOtherUserAccount() {
         // Create two test users
@@ -215,4 +319,15 @@ class UserIntegrationTest extends BaseIntegrationTest {
         headers.setContentType(MediaType.APPLICATION_JSON);
         return headers;
     }
-}
\ No newline at end of file
+
+    private SessionDto getSession(String sessionUrl, String token) {
+        ResponseEntity<SessionDto> response = restTemplate.exchange(
+                sessionUrl,
+                HttpMethod.GET,
+                new HttpEntity<>(createAuthHeaders(token)),
+                SessionDto.class
+        );
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+        return response.getBody();
+    }
+}
@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.security;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("RouteClassifier Tests")
+class RouteClassifierTest {
+
+    private static MockHttpServletRequest request(String method, String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest(method, path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @Test
+    @DisplayName("Should classify login, register, refresh and health as public")
+    void shouldClassifyPublicRoutes() {
+        assertTrue(RouteClassifier.isPublic(request("POST", "/api/auth/login")));
+        assertTrue(RouteClassifier.isPublic(request("POST", "/api/auth/register")));
+        assertTrue(RouteClassifier.isPublic(request("POST", "/api/auth/refresh")));
+        assertTrue(RouteClassifier.isPublic(request("GET", "/actuator/health")));
+    }
+
+    @Test
+    @DisplayName("Should classify CORS preflights as public on any path")
+    void shouldClassifyPreflightsAsPublic() {
+        assertTrue(RouteClassifier.isPublic(request("OPTIONS", "/api/session/1")));
+    }
+
+    @Test
+    @DisplayName("Should require authentication for logout and the API")
+    void shouldRequireAuthenticationElsewhere() {
+        assertFalse(RouteClassifier.isPublic(request("POST", "/api/auth/logout")));
+        assertFalse(RouteClassifier.isPublic(request("GET", "/api/session")));
+        assertFalse(RouteClassifier.isPublic(request("GET", "/actuator/metrics")));
+    }
+}
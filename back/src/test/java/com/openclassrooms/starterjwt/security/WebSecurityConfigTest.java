@@ -1,8 +1,11 @@
 package com.openclassrooms.starterjwt.security;
 
+import com.openclassrooms.starterjwt.security.crypto.BCryptCostCalibrator;
+import com.openclassrooms.starterjwt.security.crypto.PasswordHashingExecutor;
 import com.openclassrooms.starterjwt.security.jwt.AuthEntryPointJwt;
 import com.openclassrooms.starterjwt.security.jwt.AuthTokenFilter;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -41,6 +44,10 @@ class WebSecurityConfigTest {
         // Set dependencies using ReflectionTestUtils
         ReflectionTestUtils.setField(webSecurityConfig, "userDetailsService", userDetailsService);
         ReflectionTestUtils.setField(webSecurityConfig, "unauthorizedHandler", unauthorizedHandler);
+        ReflectionTestUtils.setField(webSecurityConfig, "passwordHashingExecutor",
+                new PasswordHashingExecutor(1, 4, 1, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(webSecurityConfig, "bcryptCostCalibrator",
+                new BCryptCostCalibrator(10, 100, 10, 14));
     }
 
     @Nested
@@ -0,0 +1,66 @@
+package com.openclassrooms.starterjwt.security.audit;
+
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger.Category;
+import com.openclassrooms.starterjwt.security.jwt.JwtVerification;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SecurityEventLogger Tests")
+class SecurityEventLoggerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SecurityEventLogger securityEventLogger;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        securityEventLogger = new SecurityEventLogger(2, 100, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should count every event and expose it as a metric")
+    void shouldCountEveryEvent() {
+        // Act
+        for (int i = 0; i < 10; i++) {
+            securityEventLogger.record(Category.EXPIRED, "expired " + i);
+        }
+
+        // Assert
+        assertEquals(10L, securityEventLogger.total(Category.EXPIRED));
+        assertEquals(10.0, meterRegistry.get("auth.security.events").tag("category", "expired").functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should summarize the window with a sample of the suppressed events")
+    void shouldSummarizeWindowWithSample() {
+        // Arrange
+        for (int i = 0; i < 5; i++) {
+            securityEventLogger.record(Category.EXPIRED, "expired " + i);
+        }
+        securityEventLogger.record(Category.MALFORMED, "malformed");
+
+        // Act
+        String summary = securityEventLogger.summarize();
+
+        // Assert
+        assertEquals("MALFORMED=1, EXPIRED=5 (e.g. expired 2)", summary);
+        assertNull(securityEventLogger.summarize());
+        assertEquals(5L, securityEventLogger.total(Category.EXPIRED));
+    }
+
+    @Test
+    @DisplayName("Should map every token failure status to a category")
+    void shouldMapTokenFailureStatuses() {
+        for (JwtVerification.Status status : JwtVerification.Status.values()) {
+            if (status == JwtVerification.Status.VALID) {
+                assertThrows(IllegalArgumentException.class, () -> Category.of(status));
+            } else {
+                assertEquals(status.name(), Category.of(status).name());
+            }
+        }
+    }
+}
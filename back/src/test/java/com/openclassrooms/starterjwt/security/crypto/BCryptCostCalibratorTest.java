@@ -0,0 +1,36 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BCryptCostCalibrator Tests")
+class BCryptCostCalibratorTest {
+
+    @Test
+    @DisplayName("Should use the configured strength when one is fixed")
+    void shouldUseFixedStrength() {
+        assertEquals(12, new BCryptCostCalibrator(12, 1, 4, 14).getStrength());
+    }
+
+    @Test
+    @DisplayName("Should calibrate within the configured bounds")
+    void shouldCalibrateWithinBounds() {
+        int strength = new BCryptCostCalibrator(0, 50, 4, 12).getStrength();
+
+        assertTrue(strength >= 4 && strength <= 12);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the minimum strength when the budget is too small")
+    void shouldFallBackToMinimumStrength() {
+        assertEquals(10, new BCryptCostCalibrator(0, 0, 10, 14).getStrength());
+    }
+
+    @Test
+    @DisplayName("Should pick the maximum strength for a generous budget")
+    void shouldPickMaximumStrengthForGenerousBudget() {
+        assertEquals(6, new BCryptCostCalibrator(0, 60_000, 4, 6).getStrength());
+    }
+}
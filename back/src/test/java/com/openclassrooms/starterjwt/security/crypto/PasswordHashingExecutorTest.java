@@ -0,0 +1,108 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import com.openclassrooms.starterjwt.exception.ServiceUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PasswordHashingExecutor Tests")
+class PasswordHashingExecutorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor hashingExecutor;
+    private ExecutorService callers;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(1, 1, 3, meterRegistry);
+        callers = Executors.newFixedThreadPool(2);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        hashingExecutor.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Execution Tests")
+    class ExecutionTests {
+
+        @Test
+        @DisplayName("Should return the task result and record its latency")
+        void shouldReturnResultAndRecordLatency() {
+            // Act
+            String result = hashingExecutor.execute(() -> "hashed");
+
+            // Assert
+            assertEquals("hashed", result);
+            assertEquals(1, meterRegistry.get("auth.password.hash").timer().count());
+        }
+
+        @Test
+        @DisplayName("Should rethrow runtime exceptions from the task")
+        void shouldRethrowTaskExceptions() {
+            // Act & Assert
+            assertThrows(IllegalArgumentException.class,
+                    () -> hashingExecutor.execute(() -> { throw new IllegalArgumentException("bad hash"); }));
+        }
+    }
+
+    @Nested
+    @DisplayName("Saturation Tests")
+    class SaturationTests {
+
+        @Test
+        @DisplayName("Should reject immediately once the pool and queue are full")
+        void shouldRejectWhenSaturated() throws Exception {
+            // Arrange
+            CountDownLatch running = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            callers.submit(() -> hashingExecutor.execute(() -> {
+                running.countDown();
+                await(release);
+                return null;
+            }));
+            assertTrue(running.await(5, TimeUnit.SECONDS));
+            callers.submit(() -> hashingExecutor.execute(() -> null));
+            waitForQueueDepth(1);
+
+            // Act
+            ServiceUnavailableException exception = assertThrows(ServiceUnavailableException.class,
+                    () -> hashingExecutor.execute(() -> "rejected"));
+
+            // Assert
+            assertEquals(3, exception.getRetryAfterSeconds());
+            assertEquals(1.0, meterRegistry.get("auth.password.rejected").counter().count());
+            assertEquals(1.0, meterRegistry.get("auth.password.queue.depth").gauge().value());
+            release.countDown();
+        }
+    }
+
+    private void waitForQueueDepth(int depth) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (meterRegistry.get("auth.password.queue.depth").gauge().value() < depth) {
+            assertTrue(System.currentTimeMillis() < deadline, "queue never reached depth " + depth);
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("PooledBCryptPasswordEncoder Tests")
+class PooledBCryptPasswordEncoderTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PasswordHashingExecutor hashingExecutor;
+    private PooledBCryptPasswordEncoder encoder;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        hashingExecutor = new PasswordHashingExecutor(1, 4, 1, meterRegistry);
+        encoder = new PooledBCryptPasswordEncoder(hashingExecutor, 5);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hashingExecutor.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Hashing Tests")
+    class HashingTests {
+
+        @Test
+        @DisplayName("Should hash and match on the hashing pool")
+        void shouldHashAndMatchOnPool() {
+            // Act
+            String encoded = encoder.encode("secret");
+
+            // Assert
+            assertTrue(encoded.startsWith("$2a$05$"));
+            assertTrue(encoder.matches("secret", encoded));
+            assertFalse(encoder.matches("other", encoded));
+            assertEquals(3, meterRegistry.get("auth.password.hash").timer().count());
+        }
+    }
+
+    @Nested
+    @DisplayName("Upgrade Encoding Tests")
+    class UpgradeEncodingTests {
+
+        @Test
+        @DisplayName("Should request a rehash when the stored cost is lower or higher")
+        void shouldRequestRehashWhenCostDiffers() {
+            assertTrue(encoder.upgradeEncoding("$2a$04$abcdefghijklmnopqrstuuN4Ug1k5mFqLcLhSfhz3kJgJmJMmqzPO"));
+            assertTrue(encoder.upgradeEncoding("$2a$10$.Hsa/ZjUVaHqi0tp9xieMeewrnZxrZ5pQRzddUXE/WjDu2ZThe6Iq"));
+        }
+
+        @Test
+        @DisplayName("Should keep hashes already at the target cost")
+        void shouldKeepHashesAtTargetCost() {
+            assertFalse(encoder.upgradeEncoding(encoder.encode("secret")));
+        }
+
+        @Test
+        @DisplayName("Should ignore empty or foreign hashes")
+        void shouldIgnoreForeignHashes() {
+            assertFalse(encoder.upgradeEncoding(null));
+            assertFalse(encoder.upgradeEncoding("plain-text"));
+        }
+    }
+}
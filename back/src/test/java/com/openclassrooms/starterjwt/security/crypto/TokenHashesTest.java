@@ -0,0 +1,17 @@
+package com.openclassrooms.starterjwt.security.crypto;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenHashes Tests")
+class TokenHashesTest {
+
+    @Test
+    @DisplayName("Should return the SHA-256 digest as lowercase hex, two digits per byte")
+    void shouldReturnSha256AsHex() {
+        // The digest holds a 0x03 byte, which must keep its leading zero
+        assertEquals("ba7816bf8f01cfea414140de5dae2223b00361a396177a9cb410ff61f20015ad", TokenHashes.sha256Hex("abc"));
+    }
+}
@@ -1,6 +1,8 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.exception.ErrorResponseWriter;
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -8,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.MediaType;
 import org.springframework.security.core.AuthenticationException;
@@ -19,6 +22,7 @@ import javax.servlet.http.HttpServletResponse;
 import java.io.ByteArrayOutputStream;
 import java.util.Map;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.fail;
 import static org.mockito.Mockito.verify;
@@ -37,6 +41,12 @@ class AuthEntryPointJwtTest {
     @Mock
     private AuthenticationException authException;
 
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
+    @Spy
+    private ErrorResponseWriter errorResponseWriter = new ErrorResponseWriter();
+
     @InjectMocks
     private AuthEntryPointJwt authEntryPointJwt;
 
@@ -101,6 +111,9 @@ class AuthEntryPointJwtTest {
             assertNotNull(responseBody);
             Map<String, Object> responseMap = objectMapper.readValue(responseBody, Map.class);
             assertNotNull(responseMap);
+            assertEquals(401, responseMap.get("status"));
+            assertEquals("Unauthorized", responseMap.get("error"));
+            assertEquals("/api/test", responseMap.get("path"));
         }
     }
 }
\ No newline at end of file
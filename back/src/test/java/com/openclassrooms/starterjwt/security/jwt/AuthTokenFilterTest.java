@@ -15,9 +15,12 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
 
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import com.openclassrooms.starterjwt.security.services.UserDetailsServiceImpl;
 
@@ -31,6 +34,12 @@ class AuthTokenFilterTest {
     @Mock
     private UserDetailsServiceImpl userDetailsService;
 
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
     @Mock
     private HttpServletRequest request;
 
@@ -44,6 +53,7 @@ class AuthTokenFilterTest {
     private AuthTokenFilter authTokenFilter;
 
     private UserDetails userDetails;
+    private JwtVerification verification;
     private static final String TOKEN = "valid.jwt.token";
     private static final String USERNAME = "test@test.com";
 
@@ -58,6 +68,8 @@ class AuthTokenFilterTest {
                 .lastName("Doe")
                 .password("password")
                 .build();
+
+        verification = JwtVerification.valid(USERNAME, (UserDetailsImpl) userDetails, Long.MAX_VALUE);
     }
 
     @Nested
@@ -69,16 +81,14 @@ class AuthTokenFilterTest {
         void shouldParseValidAuthorizationHeader() throws Exception {
             // Arrange
             when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
-            when(jwtUtils.validateJwtToken(TOKEN)).thenReturn(true);
-            when(jwtUtils.getUserNameFromJwtToken(TOKEN)).thenReturn(USERNAME);
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(verification);
             when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
 
             // Act
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(TOKEN);
-            verify(jwtUtils).getUserNameFromJwtToken(TOKEN);
+            verify(jwtUtils).verifyJwtToken(TOKEN);
             verify(userDetailsService).loadUserByUsername(USERNAME);
             verify(filterChain).doFilter(request, response);
             assertNotNull(SecurityContextHolder.getContext().getAuthentication());
@@ -94,13 +104,29 @@ class AuthTokenFilterTest {
         void shouldHandleTokenValidationException() throws Exception {
             // Arrange
             when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
-            when(jwtUtils.validateJwtToken(TOKEN)).thenThrow(new RuntimeException("Token validation failed"));
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenThrow(new RuntimeException("Token validation failed"));
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            verify(jwtUtils).verifyJwtToken(TOKEN);
+            verify(filterChain).doFilter(request, response);
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+        }
+
+        @Test
+        @DisplayName("Should not authenticate a rejected token")
+        void shouldNotAuthenticateRejectedToken() throws Exception {
+            // Arrange
+            when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(JwtVerification.invalid(JwtVerification.Status.EXPIRED));
 
             // Act
             authTokenFilter.doFilterInternal(request, response, filterChain);
 
             // Assert
-            verify(jwtUtils).validateJwtToken(TOKEN);
+            verifyNoInteractions(userDetailsService);
             verify(filterChain).doFilter(request, response);
             assertNull(SecurityContextHolder.getContext().getAuthentication());
         }
@@ -113,8 +139,7 @@ class AuthTokenFilterTest {
         @BeforeEach
         void setUp() {
             when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
-            when(jwtUtils.validateJwtToken(TOKEN)).thenReturn(true);
-            when(jwtUtils.getUserNameFromJwtToken(TOKEN)).thenReturn(USERNAME);
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(verification);
         }
 
         @Test
@@ -141,8 +166,7 @@ class AuthTokenFilterTest {
         void shouldContinueFilterChainAfterSuccessfulAuthentication() throws Exception {
             // Arrange
             when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
-            when(jwtUtils.validateJwtToken(TOKEN)).thenReturn(true);
-            when(jwtUtils.getUserNameFromJwtToken(TOKEN)).thenReturn(USERNAME);
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(verification);
             when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
 
             // Act
@@ -153,4 +177,76 @@ class AuthTokenFilterTest {
             assertNotNull(SecurityContextHolder.getContext().getAuthentication());
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("Should skip token work on public routes")
+    void shouldSkipPublicRoutes() throws Exception {
+        // Arrange
+        MockHttpServletRequest loginRequest = new MockHttpServletRequest("POST", "/api/auth/login");
+        loginRequest.setServletPath("/api/auth/login");
+        loginRequest.addHeader("Authorization", "Bearer " + TOKEN);
+
+        // Act
+        authTokenFilter.doFilter(loginRequest, response, filterChain);
+
+        // Assert
+        verifyNoInteractions(jwtUtils);
+        verify(filterChain).doFilter(loginRequest, response);
+    }
+
+    @Nested
+    @DisplayName("Stateless Principal Tests")
+    class StatelessPrincipalTests {
+
+        @BeforeEach
+        void setUp() {
+            ReflectionTestUtils.setField(authTokenFilter, "statelessPrincipal", true);
+            when(request.getHeader("Authorization")).thenReturn("Bearer " + TOKEN);
+        }
+
+        @Test
+        @DisplayName("Should rebuild principal from token claims without loading the user")
+        void shouldRebuildPrincipalFromClaims() throws Exception {
+            // Arrange
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(verification);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            assertEquals(userDetails, SecurityContextHolder.getContext().getAuthentication().getPrincipal());
+            verifyNoInteractions(userDetailsService);
+            verify(filterChain).doFilter(request, response);
+        }
+
+        @Test
+        @DisplayName("Should fall back to the user store for tokens without principal claims")
+        void shouldFallBackToUserStoreForLegacyTokens() throws Exception {
+            // Arrange
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(JwtVerification.valid(USERNAME, null, Long.MAX_VALUE));
+            when(userDetailsService.loadUserByUsername(USERNAME)).thenReturn(userDetails);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            verify(userDetailsService).loadUserByUsername(USERNAME);
+            assertNotNull(SecurityContextHolder.getContext().getAuthentication());
+        }
+
+        @Test
+        @DisplayName("Should not authenticate a revoked token")
+        void shouldNotAuthenticateRevokedToken() throws Exception {
+            // Arrange
+            when(jwtUtils.verifyJwtToken(TOKEN)).thenReturn(verification);
+            when(tokenRevocationList.isRevoked(verification)).thenReturn(true);
+
+            // Act
+            authTokenFilter.doFilterInternal(request, response, filterChain);
+
+            // Assert
+            assertNull(SecurityContextHolder.getContext().getAuthentication());
+            verify(filterChain).doFilter(request, response);
+        }
+    }
+}
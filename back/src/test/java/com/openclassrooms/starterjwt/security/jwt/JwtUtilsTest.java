@@ -1,5 +1,6 @@
 package com.openclassrooms.starterjwt.security.jwt;
 
+import com.openclassrooms.starterjwt.security.audit.SecurityEventLogger;
 import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -13,6 +14,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -25,6 +29,9 @@ class JwtUtilsTest {
     @Mock
     private Authentication authentication;
 
+    @Mock
+    private SecurityEventLogger securityEventLogger;
+
     private UserDetailsImpl userDetails;
 
     @BeforeEach
@@ -35,6 +42,7 @@ class JwtUtilsTest {
         // 1 hour
         int jwtExpirationMs = 3600000;
         ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", jwtExpirationMs);
+        ReflectionTestUtils.setField(jwtUtils, "verifiedTokenCache", new VerifiedTokenCache(100));
 
         // Create UserDetails
         userDetails = UserDetailsImpl.builder()
@@ -42,6 +50,7 @@ class JwtUtilsTest {
                 .username("test@test.com")
                 .firstName("John")
                 .lastName("Doe")
+                .admin(true)
                 .password("password")
                 .build();
     }
@@ -104,4 +113,81 @@ class JwtUtilsTest {
             assertEquals("test@test.com", username);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Principal Extraction Tests")
+    class PrincipalExtractionTests {
+
+        @Test
+        @DisplayName("Should rebuild user details from token claims")
+        void shouldRebuildUserDetailsFromClaims() {
+            // Arrange
+            when(authentication.getPrincipal()).thenReturn(userDetails);
+            String token = jwtUtils.generateJwtToken(authentication);
+
+            // Act
+            UserDetailsImpl principal = jwtUtils.verifyJwtToken(token).getPrincipal();
+
+            // Assert
+            assertNotNull(principal);
+            assertEquals(1L, principal.getId());
+            assertEquals("test@test.com", principal.getUsername());
+            assertEquals("John", principal.getFirstName());
+            assertEquals("Doe", principal.getLastName());
+            assertTrue(principal.getAdmin());
+            assertNull(principal.getPassword());
+        }
+    }
+
+    @Nested
+    @DisplayName("Verification Tests")
+    class VerificationTests {
+
+        @Test
+        @DisplayName("Should serve repeated verifications from the cache")
+        void shouldServeRepeatedVerificationsFromCache() {
+            // Arrange
+            when(authentication.getPrincipal()).thenReturn(userDetails);
+            String token = jwtUtils.generateJwtToken(authentication);
+
+            // Act
+            JwtVerification first = jwtUtils.verifyJwtToken(token);
+            JwtVerification second = jwtUtils.verifyJwtToken(token);
+
+            // Assert
+            assertTrue(first.isValid());
+            assertSame(first, second);
+        }
+
+        @Test
+        @DisplayName("Should report why a token was rejected")
+        void shouldReportRejectionReason() {
+            // Arrange
+            when(authentication.getPrincipal()).thenReturn(userDetails);
+            String token = jwtUtils.generateJwtToken(authentication);
+            String tampered = token.substring(0, token.length() - 4) + "AAAA";
+
+            // Act & Assert
+            assertEquals(JwtVerification.Status.INVALID_SIGNATURE, jwtUtils.verifyJwtToken(tampered).getStatus());
+            assertEquals(JwtVerification.Status.MALFORMED, jwtUtils.verifyJwtToken("not-a-token").getStatus());
+            assertEquals(JwtVerification.Status.EMPTY, jwtUtils.verifyJwtToken("").getStatus());
+        }
+
+        @Test
+        @DisplayName("Should reject expired tokens")
+        void shouldRejectExpiredTokens() {
+            // Arrange
+            ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", -1000);
+            when(authentication.getPrincipal()).thenReturn(userDetails);
+            String token = jwtUtils.generateJwtToken(authentication);
+
+            // Act
+            JwtVerification verification = jwtUtils.verifyJwtToken(token);
+
+            // Assert
+            assertEquals(JwtVerification.Status.EXPIRED, verification.getStatus());
+            assertFalse(verification.isValid());
+            verify(securityEventLogger).record(eq(SecurityEventLogger.Category.EXPIRED), anyString());
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.openclassrooms.starterjwt.security.jwt;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.openclassrooms.starterjwt.security.services.UserDetailsImpl;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenRevocationList Tests")
+class TokenRevocationListTest {
+
+    private static final long TTL = 900_000L;
+
+    private AtomicLong clock;
+    private TokenRevocationList revocationList;
+    private UserDetailsImpl principal;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(1_000_000L);
+        revocationList = new TokenRevocationList(100, TTL, clock::get);
+        principal = UserDetailsImpl.builder().id(1L).username("test@test.com").build();
+    }
+
+    private JwtVerification token(String tokenId, long issuedAt) {
+        return JwtVerification.valid("test@test.com", principal, tokenId, issuedAt, issuedAt + TTL);
+    }
+
+    @Nested
+    @DisplayName("Revocation Tests")
+    class RevocationTests {
+
+        @Test
+        @DisplayName("Should not report tokens that were never revoked")
+        void shouldNotReportUnrevokedTokens() {
+            assertFalse(revocationList.isRevoked(token("jti-1", clock.get())));
+        }
+
+        @Test
+        @DisplayName("Should revoke a single token by id")
+        void shouldRevokeSingleToken() {
+            // Arrange
+            JwtVerification revoked = token("jti-1", clock.get());
+
+            // Act
+            revocationList.revokeToken("jti-1", revoked.getExpiresAtMillis());
+
+            // Assert
+            assertTrue(revocationList.isRevoked(revoked));
+            assertFalse(revocationList.isRevoked(token("jti-2", clock.get())));
+        }
+
+        @Test
+        @DisplayName("Should revoke every token issued to a user before the revocation")
+        void shouldRevokeUserTokensIssuedBefore() {
+            // Arrange
+            JwtVerification before = token("jti-1", clock.get() - 1_000L);
+
+            // Act
+            revocationList.revokeUser(1L);
+            clock.addAndGet(5_000L);
+
+            // Assert
+            assertTrue(revocationList.isRevoked(before));
+            assertFalse(revocationList.isRevoked(token("jti-2", clock.get())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Purge Tests")
+    class PurgeTests {
+
+        @Test
+        @DisplayName("Should forget revocations once the tokens have expired")
+        void shouldForgetExpiredRevocations() {
+            // Arrange
+            revocationList.revokeToken("jti-1", clock.get() + 1_000L);
+            revocationList.revokeToken("jti-2", clock.get() + TTL * 2);
+            revocationList.revokeUser(1L);
+
+            // Act
+            clock.addAndGet(TTL);
+            revocationList.purgeExpired();
+
+            // Assert
+            assertEquals(1, revocationList.size());
+            assertTrue(revocationList.isRevoked(token("jti-2", clock.get() - TTL)));
+        }
+    }
+}
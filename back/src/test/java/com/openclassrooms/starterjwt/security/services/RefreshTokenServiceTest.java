@@ -0,0 +1,124 @@
+package com.openclassrooms.starterjwt.security.services;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.openclassrooms.starterjwt.models.RefreshToken;
+import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.RefreshTokenRepository;
+import com.openclassrooms.starterjwt.security.crypto.TokenHashes;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RefreshTokenService Tests")
+class RefreshTokenServiceTest {
+
+    @Mock
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private RefreshTokenService refreshTokenService;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        refreshTokenService = new RefreshTokenService(refreshTokenRepository, 60_000L);
+
+        user = new User();
+        user.setId(1L);
+        user.setEmail("test@test.com");
+    }
+
+    @Test
+    @DisplayName("Should store only the hash of a new token")
+    void shouldStoreOnlyTheHash() {
+        // Arrange
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+
+        // Act
+        String token = refreshTokenService.create(user);
+
+        // Assert
+        verify(refreshTokenRepository).save(captor.capture());
+        assertNotEquals(token, captor.getValue().getTokenHash());
+        assertEquals(TokenHashes.sha256Hex(token), captor.getValue().getTokenHash());
+        assertEquals(64, captor.getValue().getTokenHash().length());
+        assertEquals(user, captor.getValue().getUser());
+    }
+
+    @Nested
+    @DisplayName("Consume Tests")
+    class ConsumeTests {
+
+        private RefreshToken stored(Instant expiryDate) {
+            RefreshToken refreshToken = RefreshToken.builder()
+                    .id(7L)
+                    .tokenHash(TokenHashes.sha256Hex("token"))
+                    .user(user)
+                    .expiryDate(expiryDate)
+                    .build();
+            when(refreshTokenRepository.findByTokenHash(TokenHashes.sha256Hex("token")))
+                    .thenReturn(Optional.of(refreshToken));
+            return refreshToken;
+        }
+
+        @Test
+        @DisplayName("Should return the owner and delete the token")
+        void shouldReturnOwnerAndDeleteToken() {
+            // Arrange
+            stored(Instant.now().plusSeconds(60));
+            when(refreshTokenRepository.removeById(7L)).thenReturn(1);
+
+            // Act
+            Optional<User> result = refreshTokenService.consume("token");
+
+            // Assert
+            assertEquals(Optional.of(user), result);
+            verify(refreshTokenRepository).removeById(7L);
+        }
+
+        @Test
+        @DisplayName("Should reject a token consumed concurrently")
+        void shouldRejectTokenConsumedConcurrently() {
+            // Arrange
+            stored(Instant.now().plusSeconds(60));
+            when(refreshTokenRepository.removeById(7L)).thenReturn(0);
+
+            // Act & Assert
+            assertFalse(refreshTokenService.consume("token").isPresent());
+        }
+
+        @Test
+        @DisplayName("Should reject and delete an expired token")
+        void shouldRejectExpiredToken() {
+            // Arrange
+            stored(Instant.now().minusSeconds(1));
+            when(refreshTokenRepository.removeById(7L)).thenReturn(1);
+
+            // Act & Assert
+            assertFalse(refreshTokenService.consume("token").isPresent());
+            verify(refreshTokenRepository).removeById(7L);
+        }
+
+        @Test
+        @DisplayName("Should reject an unknown token")
+        void shouldRejectUnknownToken() {
+            // Arrange
+            when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertFalse(refreshTokenService.consume("unknown").isPresent());
+            verify(refreshTokenRepository, never()).removeById(anyLong());
+        }
+    }
+}
@@ -85,6 +85,7 @@ class UserDetailsServiceImplTest {
                     () -> assertEquals(mockUser.getFirstName(), userDetails.getFirstName()),
                     () -> assertEquals(mockUser.getLastName(), userDetails.getLastName()),
                     () -> assertEquals(mockUser.getPassword(), userDetails.getPassword()),
+                    () -> assertTrue(userDetails.getAdmin()),
                     () -> assertTrue(userDetails.isAccountNonExpired()),
                     () -> assertTrue(userDetails.isAccountNonLocked()),
                     () -> assertTrue(userDetails.isCredentialsNonExpired()),
@@ -0,0 +1,44 @@
+package com.openclassrooms.starterjwt.security.throttle;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LoginThrottle Tests")
+class LoginThrottleTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private LoginThrottle loginThrottle;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        loginThrottle = new LoginThrottle(2, 1, 3, 1, 60_000, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should throttle an account regardless of email case")
+    void shouldThrottleAccountRegardlessOfCase() {
+        assertEquals(0L, loginThrottle.tryAcquire("Test@Test.com", "10.0.0.1"));
+        assertEquals(0L, loginThrottle.tryAcquire("test@test.com ", "10.0.0.2"));
+
+        long retryAfter = loginThrottle.tryAcquire("test@test.com", "10.0.0.3");
+
+        assertEquals(60L, retryAfter);
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "email").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should throttle an address spraying many accounts")
+    void shouldThrottleAddressSprayingAccounts() {
+        assertEquals(0L, loginThrottle.tryAcquire("a@test.com", "10.0.0.1"));
+        assertEquals(0L, loginThrottle.tryAcquire("b@test.com", "10.0.0.1"));
+        assertEquals(0L, loginThrottle.tryAcquire("c@test.com", "10.0.0.1"));
+
+        assertTrue(loginThrottle.tryAcquire("d@test.com", "10.0.0.1") > 0);
+        assertEquals(1.0, meterRegistry.get("auth.login.throttled").tag("key", "address").counter().count());
+    }
+}
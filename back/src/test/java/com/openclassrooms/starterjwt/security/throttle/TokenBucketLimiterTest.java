@@ -0,0 +1,82 @@
+package com.openclassrooms.starterjwt.security.throttle;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TokenBucketLimiter Tests")
+class TokenBucketLimiterTest {
+
+    private AtomicLong clock;
+    private TokenBucketLimiter limiter;
+
+    @BeforeEach
+    void setUp() {
+        clock = new AtomicLong(TimeUnit.HOURS.toNanos(1));
+        // 3 attempts, then one more every 20 seconds
+        limiter = new TokenBucketLimiter(3, 3, 60_000, clock::get);
+    }
+
+    @Nested
+    @DisplayName("Acquire Tests")
+    class AcquireTests {
+
+        @Test
+        @DisplayName("Should allow a burst up to the capacity then reject")
+        void shouldAllowBurstThenReject() {
+            assertEquals(0L, limiter.tryAcquire("a"));
+            assertEquals(0L, limiter.tryAcquire("a"));
+            assertEquals(0L, limiter.tryAcquire("a"));
+
+            long wait = limiter.tryAcquire("a");
+
+            assertEquals(TimeUnit.SECONDS.toNanos(20), wait, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        @Test
+        @DisplayName("Should refill over time")
+        void shouldRefillOverTime() {
+            for (int i = 0; i < 3; i++) {
+                limiter.tryAcquire("a");
+            }
+
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(20));
+
+            assertEquals(0L, limiter.tryAcquire("a"));
+            assertTrue(limiter.tryAcquire("a") > 0);
+        }
+
+        @Test
+        @DisplayName("Should keep buckets independent per key")
+        void shouldKeepBucketsIndependent() {
+            for (int i = 0; i < 3; i++) {
+                limiter.tryAcquire("a");
+            }
+
+            assertTrue(limiter.tryAcquire("a") > 0);
+            assertEquals(0L, limiter.tryAcquire("b"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Eviction Tests")
+    class EvictionTests {
+
+        @Test
+        @DisplayName("Should evict only idle buckets")
+        void shouldEvictOnlyIdleBuckets() {
+            limiter.tryAcquire("idle");
+            clock.addAndGet(TimeUnit.SECONDS.toNanos(61));
+            limiter.tryAcquire("active");
+
+            assertEquals(1, limiter.evictIdle());
+            assertEquals(1, limiter.size());
+        }
+    }
+}
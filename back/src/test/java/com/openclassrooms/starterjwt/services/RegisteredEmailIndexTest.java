@@ -0,0 +1,75 @@
+package com.openclassrooms.starterjwt.services;
+
+import static org.mockito.Mockito.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import com.openclassrooms.starterjwt.repository.UserRepository;
+
+import java.util.stream.Stream;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("RegisteredEmailIndex Tests")
+class RegisteredEmailIndexTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private RegisteredEmailIndex registeredEmailIndex;
+
+    @BeforeEach
+    void setUp() {
+        registeredEmailIndex = new RegisteredEmailIndex(userRepository, transactionManager, 1_000, 0.01, 0.5);
+    }
+
+    @Test
+    @DisplayName("Should report every address as possibly taken until loaded")
+    void shouldReportPossiblyTakenUntilLoaded() {
+        assertTrue(registeredEmailIndex.mightBeTaken("anyone@test.com"));
+    }
+
+    @Test
+    @DisplayName("Should load the registered emails ignoring case")
+    void shouldLoadRegisteredEmails() {
+        // Arrange
+        when(userRepository.count()).thenReturn(2L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.of("a@test.com", "B@Test.com"));
+
+        // Act
+        registeredEmailIndex.rebuild();
+
+        // Assert
+        assertTrue(registeredEmailIndex.mightBeTaken("A@TEST.COM"));
+        assertTrue(registeredEmailIndex.mightBeTaken("b@test.com "));
+        assertFalse(registeredEmailIndex.mightBeTaken("c@test.com"));
+    }
+
+    @Test
+    @DisplayName("Should index new registrations and rebuild after many deletions")
+    void shouldIndexRegistrationsAndRebuildAfterDeletions() {
+        // Arrange
+        when(userRepository.count()).thenReturn(0L);
+        when(userRepository.streamAllEmails()).thenReturn(Stream.empty(), Stream.empty());
+        registeredEmailIndex.rebuild();
+
+        // Act
+        registeredEmailIndex.add("new@test.com");
+        registeredEmailIndex.recordDeletion();
+        assertTrue(registeredEmailIndex.mightBeTaken("new@test.com"));
+        registeredEmailIndex.rebuildIfStale();
+
+        // Assert
+        assertFalse(registeredEmailIndex.mightBeTaken("new@test.com"));
+        verify(userRepository, times(2)).streamAllEmails();
+    }
+}
@@ -0,0 +1,144 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SeatLedger Tests")
+class SeatLedgerTest {
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    private SeatLedger seatLedger;
+
+    @BeforeEach
+    void setUp() {
+        seatLedger = new SeatLedger(sessionRepository, 100, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private static SessionRepository.Seats seats(Integer capacity, int seatsTaken) {
+        return new SessionRepository.Seats() {
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public int getSeatsTaken() {
+                return seatsTaken;
+            }
+        };
+    }
+
+    @Test
+    @DisplayName("Should load the seats once and count the seats taken since")
+    void shouldCountTakenSeats() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(2, 1)));
+
+        // Act
+        boolean fullBefore = seatLedger.isFull(1L);
+        seatLedger.taken(1L);
+
+        // Assert
+        assertFalse(fullBefore);
+        assertTrue(seatLedger.isFull(1L));
+        verify(sessionRepository, times(1)).findSeatsById(1L);
+    }
+
+    @Test
+    @DisplayName("Should free a seat when a participant leaves")
+    void shouldReleaseSeat() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(1, 1)));
+        assertTrue(seatLedger.isFull(1L));
+
+        // Act
+        seatLedger.released(1L);
+
+        // Assert
+        assertFalse(seatLedger.isFull(1L));
+    }
+
+    @Test
+    @DisplayName("Should never report an unlimited or unknown session as full")
+    void shouldNotLimitUnlimitedSessions() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(null, 500)));
+        when(sessionRepository.findSeatsById(9L)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertFalse(seatLedger.isFull(1L));
+        assertFalse(seatLedger.isFull(9L));
+    }
+
+    @Test
+    @DisplayName("Should trust the database when it refuses a seat")
+    void shouldMarkFull() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(3, 0)));
+        seatLedger.isFull(1L);
+
+        // Act
+        seatLedger.full(1L);
+
+        // Assert
+        assertTrue(seatLedger.isFull(1L));
+    }
+
+    @Test
+    @DisplayName("Should only count a seat once its transaction has committed")
+    void shouldCountSeatAfterCommit() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(1, 0)));
+        seatLedger.isFull(1L);
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        seatLedger.taken(1L);
+        boolean fullBeforeCommit = seatLedger.isFull(1L);
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+
+        // Assert
+        assertFalse(fullBeforeCommit);
+        assertTrue(seatLedger.isFull(1L));
+    }
+
+    @Test
+    @DisplayName("Should reload the seats of a session that was edited")
+    void shouldReloadAfterForget() {
+        // Arrange
+        when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(1, 1)), Optional.of(seats(5, 1)));
+        assertTrue(seatLedger.isFull(1L));
+
+        // Act
+        seatLedger.forget(1L);
+
+        // Assert
+        assertFalse(seatLedger.isFull(1L));
+        verify(sessionRepository, times(2)).findSeatsById(1L);
+    }
+}
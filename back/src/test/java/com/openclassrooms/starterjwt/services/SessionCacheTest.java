@@ -0,0 +1,216 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("SessionCache Tests")
+class SessionCacheTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private SessionCache sessionCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        sessionCache = new SessionCache(100, 60_000, meterRegistry);
+        loads = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private SessionDto load(Long id) {
+        loads.incrementAndGet();
+        SessionDto session = new SessionDto();
+        session.setId(id);
+        return session;
+    }
+
+    @Test
+    @DisplayName("Should evict immediately outside a transaction")
+    void shouldEvictImmediately() {
+        sessionCache.getSession(1L, this::load);
+
+        sessionCache.evict(1L);
+        sessionCache.getSession(1L, this::load);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should defer the eviction until the transaction completes")
+    void shouldDeferEvictionUntilCompletion() {
+        sessionCache.getSession(1L, this::load);
+        TransactionSynchronizationManager.initSynchronization();
+
+        sessionCache.evict(1L);
+        sessionCache.getSession(1L, this::load);
+        assertEquals(1, loads.get());
+
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        sessionCache.getSession(1L, this::load);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Should hand out a read-only list and publish hit and miss counts")
+    void shouldPublishStatistics() {
+        List<SessionDto> first = sessionCache.getList(() -> new ArrayList<>(Collections.singletonList(load(1L))));
+        sessionCache.getList(ArrayList::new);
+
+        assertThrows(UnsupportedOperationException.class, () -> first.add(new SessionDto()));
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "sessionList").tag("result", "hit")
+                .functionCounter().count());
+        assertEquals(1.0, meterRegistry.get("cache.gets").tag("cache", "sessionList").tag("result", "miss")
+                .functionCounter().count());
+    }
+
+    @Test
+    @DisplayName("Should not keep a list that was loading when it was evicted")
+    void shouldDropListLoadedDuringEviction() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicReference<Thread> evictor = new AtomicReference<>();
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<List<SessionDto>> stale = executor.submit(() -> sessionCache.getList(() -> {
+                loading.countDown();
+                await(release);
+                return new ArrayList<>(Collections.singletonList(load(1L)));
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            Future<?> eviction = executor.submit(() -> {
+                evictor.set(Thread.currentThread());
+                sessionCache.evictList();
+            });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (!eviction.isDone() && (evictor.get() == null || evictor.get().getState() == Thread.State.RUNNABLE)) {
+                assertTrue(System.nanoTime() < deadline, "eviction did not start");
+                Thread.sleep(5);
+            }
+            release.countDown();
+            stale.get(5, TimeUnit.SECONDS);
+            eviction.get(5, TimeUnit.SECONDS);
+
+            sessionCache.getList(() -> new ArrayList<>(Collections.singletonList(load(2L))));
+            assertEquals(2, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should share one load between concurrent readers of the same id")
+    void shouldCoalesceConcurrentLoads() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<SessionDto> leader = executor.submit(() -> sessionCache.getSession(1L, id -> {
+                loading.countDown();
+                await(release);
+                return load(id);
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+
+            List<Future<SessionDto>> followers = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                followers.add(executor.submit(() -> sessionCache.getSession(1L, this::load)));
+            }
+            waitForCoalesced(3);
+            release.countDown();
+
+            SessionDto session = leader.get(5, TimeUnit.SECONDS);
+            for (Future<SessionDto> follower : followers) {
+                assertSame(session, follower.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should hand the loader's exception to every waiter and not cache it")
+    void shouldPropagateFailureToWaiters() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<SessionDto> leader = executor.submit(() -> sessionCache.getSession(1L, id -> {
+                loading.countDown();
+                await(release);
+                throw new IllegalStateException("database down");
+            }));
+            assertTrue(loading.await(5, TimeUnit.SECONDS));
+            CompletableFuture<SessionDto> follower = CompletableFuture.supplyAsync(
+                    () -> sessionCache.getSession(1L, this::load), executor);
+            waitForCoalesced(1);
+            release.countDown();
+
+            Exception leaderFailure = assertThrows(Exception.class, () -> leader.get(5, TimeUnit.SECONDS));
+            Exception followerFailure = assertThrows(Exception.class, () -> follower.get(5, TimeUnit.SECONDS));
+            assertTrue(leaderFailure.getCause() instanceof IllegalStateException);
+            assertTrue(followerFailure.getCause() instanceof IllegalStateException);
+
+            assertNotNull(sessionCache.getSession(1L, this::load));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should not cache a session that was not found")
+    void shouldNotCacheMissingSession() {
+        assertNull(sessionCache.getSession(1L, id -> null));
+
+        assertNotNull(sessionCache.getSession(1L, this::load));
+        assertEquals(1, loads.get());
+    }
+
+    private void waitForCoalesced(int readers) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (meterRegistry.get("cache.coalesced").counter().count() < readers) {
+            assertTrue(System.nanoTime() < deadline, "readers did not join the load in flight");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
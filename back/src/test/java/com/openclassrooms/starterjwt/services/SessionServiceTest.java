@@ -8,22 +8,48 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.dto.SessionCursor;
+import com.openclassrooms.starterjwt.dto.SessionDto;
+import com.openclassrooms.starterjwt.dto.SessionFilter;
+import com.openclassrooms.starterjwt.dto.SessionPage;
+import com.openclassrooms.starterjwt.models.Participation;
+import com.openclassrooms.starterjwt.models.ParticipationId;
 import com.openclassrooms.starterjwt.models.Session;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
 import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
 import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
 import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.exception.PreconditionFailedException;
 
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.Date;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("SessionService Tests")
@@ -35,6 +61,30 @@ class SessionServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private ParticipationRepository participationRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SeatLedger seatLedger;
+
+    @Mock
+    private RosterEvictor rosterEvictor;
+
+    @Mock
+    private WaitlistQueue waitlistQueue;
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Spy
+    private SessionCache sessionCache = new SessionCache(100, 60_000, new SimpleMeterRegistry());
+
     @InjectMocks
     private SessionService sessionService;
 
@@ -55,6 +105,9 @@ class SessionServiceTest {
         mockSession.setName("Yoga Session");
         mockSession.setDescription("Beginner friendly yoga session");
         mockSession.setUsers(new ArrayList<>());
+
+        // Mockito answers 0 for a Long: nobody waits unless a test says so
+        lenient().when(waitlistQueue.first(anyLong())).thenReturn(null);
     }
 
     @Nested
@@ -76,6 +129,35 @@ class SessionServiceTest {
             assertEquals(mockSession.getDescription(), result.getDescription());
             verify(sessionRepository, times(1)).save(any(Session.class));
         }
+
+        @Test
+        @DisplayName("Should count the submitted participants as taken seats")
+        void shouldCountSeatsOnCreate() {
+            // Arrange
+            mockSession.setCapacity(2);
+            mockSession.setUsers(new ArrayList<>(Arrays.asList(mockUser, new User())));
+            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+
+            // Act
+            sessionService.create(mockSession);
+
+            // Assert
+            ArgumentCaptor<Session> captor = ArgumentCaptor.forClass(Session.class);
+            verify(sessionRepository).save(captor.capture());
+            assertEquals(2, captor.getValue().getSeatsTaken());
+        }
+
+        @Test
+        @DisplayName("Should reject more participants than seats")
+        void shouldRejectOverbookedSession() {
+            // Arrange
+            mockSession.setCapacity(1);
+            mockSession.setUsers(new ArrayList<>(Arrays.asList(mockUser, new User())));
+
+            // Act & Assert
+            assertThrows(BadRequestException.class, () -> sessionService.create(mockSession));
+            verify(sessionRepository, never()).save(any(Session.class));
+        }
     }
 
     @Nested
@@ -94,6 +176,18 @@ class SessionServiceTest {
             // Assert
             verify(sessionRepository, times(1)).deleteById(1L);
         }
+
+        @Test
+        @DisplayName("Should delete the waitlist along with the session")
+        void shouldDeleteWaitlistWithSession() {
+            // Act
+            sessionService.delete(1L);
+
+            // Assert
+            verify(waitlistRepository).deleteBySessionId(1L);
+            verify(waitlistQueue).forget(1L);
+            verify(eventPublisher).publishEvent(new SessionDeletedEvent(1L));
+        }
     }
 
     @Nested
@@ -131,6 +225,241 @@ class SessionServiceTest {
             assertTrue(result.isEmpty());
             verify(sessionRepository, times(1)).findAll();
         }
+
+        @Test
+        @DisplayName("Should group participant ids onto the projected sessions")
+        void shouldGroupParticipantIdsOntoSummaries() {
+            // Arrange
+            SessionDto first = new SessionDto(1L, "Morning", new Date(), 1L, "desc", null, 0L, null, null);
+            SessionDto second = new SessionDto(2L, "Evening", new Date(), 1L, "desc", null, 0L, null, null);
+            when(sessionRepository.findAllSummaries()).thenReturn(Arrays.asList(first, second));
+            when(participationRepository.findAllIds()).thenReturn(Arrays.asList(
+                    new ParticipationId(1L, 3L), new ParticipationId(1L, 4L)));
+
+            // Act
+            List<SessionDto> result = sessionService.findAllSummaries();
+
+            // Assert
+            assertEquals(Arrays.asList(3L, 4L), result.get(0).getUsers());
+            assertEquals(Collections.emptyList(), result.get(1).getUsers());
+            verify(sessionRepository, never()).findAll();
+            verifyNoInteractions(userRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Cache Tests")
+    class CacheTests {
+
+        private SessionDto summary() {
+            return new SessionDto(1L, "Yoga Session", new Date(), 1L, "desc", null, 0L, null, null);
+        }
+
+        @Test
+        @DisplayName("Should load a session once and serve it from the cache afterwards")
+        void shouldServeDetailFromCache() {
+            // Arrange
+            when(sessionRepository.findSummaryById(1L)).thenReturn(Optional.of(summary()));
+            when(participationRepository.findIdsBySessionIds(Collections.singletonList(1L)))
+                    .thenReturn(Collections.singletonList(new ParticipationId(1L, 5L)));
+
+            // Act
+            SessionDto first = sessionService.findDtoById(1L);
+            SessionDto second = sessionService.findDtoById(1L);
+
+            // Assert
+            assertSame(first, second);
+            assertEquals(Collections.singletonList(5L), first.getUsers());
+            verify(sessionRepository, times(1)).findSummaryById(1L);
+            assertEquals(1L, sessionCache.sessionStats().hitCount());
+        }
+
+        @Test
+        @DisplayName("Should load the uncached sessions of a multi-get together")
+        void shouldLoadMissingSessionsTogether() {
+            // Arrange
+            when(sessionRepository.findSummaryById(1L)).thenReturn(Optional.of(summary()));
+            when(participationRepository.findIdsBySessionIds(Collections.singletonList(1L)))
+                    .thenReturn(Collections.emptyList());
+            sessionService.findDtoById(1L);
+            SessionDto other = new SessionDto(2L, "Other", new Date(), 1L, "desc", null, 0L, null, null);
+            when(sessionRepository.findSummariesByIds(new HashSet<>(Arrays.asList(2L, 3L))))
+                    .thenReturn(Collections.singletonList(other));
+            when(participationRepository.findIdsBySessionIds(new HashSet<>(Arrays.asList(2L, 3L))))
+                    .thenReturn(Collections.singletonList(new ParticipationId(2L, 5L)));
+
+            // Act
+            MultiGetResult<SessionDto> result = sessionService.findDtosByIds(Arrays.asList(3L, 2L, 1L));
+
+            // Assert
+            assertEquals(Arrays.asList(2L, 1L), result.getItems().stream().map(SessionDto::getId).collect(Collectors.toList()));
+            assertEquals(Collections.singletonList(3L), result.getMissing());
+            assertEquals(Collections.singletonList(5L), other.getUsers());
+            verify(sessionRepository, times(1)).findSummariesByIds(any());
+        }
+
+        @Test
+        @DisplayName("Should not cache a missing session")
+        void shouldNotCacheMissingSession() {
+            // Arrange
+            when(sessionRepository.findSummaryById(9L)).thenReturn(Optional.empty());
+
+            // Act
+            sessionService.findDtoById(9L);
+            SessionDto result = sessionService.findDtoById(9L);
+
+            // Assert
+            assertNull(result);
+            verify(sessionRepository, times(2)).findSummaryById(9L);
+        }
+
+        @Test
+        @DisplayName("Should reload a session after a participation change")
+        void shouldReloadAfterParticipation() {
+            // Arrange
+            when(sessionRepository.findSummaryById(1L)).thenReturn(Optional.of(summary()), Optional.of(summary()));
+            when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+            when(userRepository.existsById(5L)).thenReturn(true);
+            sessionService.findDtoById(1L);
+
+            // Act
+            sessionService.participate(1L, 5L);
+            sessionService.findDtoById(1L);
+
+            // Assert
+            verify(sessionRepository, times(2)).findSummaryById(1L);
+            verify(sessionCache).evict(1L);
+        }
+
+        @Test
+        @DisplayName("Should keep the list until a session is created")
+        void shouldKeepListUntilCreate() {
+            // Arrange
+            when(sessionRepository.findAllSummaries()).thenReturn(new ArrayList<>(Collections.singletonList(summary())));
+            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+
+            // Act
+            sessionService.findAllSummaries();
+            sessionService.findAllSummaries();
+            sessionService.create(mockSession);
+            sessionService.findAllSummaries();
+
+            // Assert
+            verify(sessionRepository, times(2)).findAllSummaries();
+            verify(sessionCache, never()).evict(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should drop the detail entry on update and delete")
+        void shouldEvictOnUpdateAndDelete() {
+            // Arrange
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+
+            // Act
+            sessionService.update(1L, 0L, mockSession);
+            sessionService.delete(2L);
+
+            // Assert
+            verify(sessionCache).evict(1L);
+            verify(sessionCache).evict(2L);
+        }
+    }
+
+    @Nested
+    @DisplayName("For Each Session Tests")
+    class ForEachSessionTests {
+
+        @Test
+        @DisplayName("Should hand every streamed session to the consumer with its participants and close the stream")
+        void shouldStreamEverySession() {
+            // Arrange
+            AtomicBoolean closed = new AtomicBoolean();
+            SessionDto first = new SessionDto(1L, "First", new Date(), 1L, "desc", null, 0L, null, null);
+            SessionDto second = new SessionDto(2L, "Second", new Date(), 1L, "desc", null, 0L, null, null);
+            when(sessionRepository.streamAllSummaries())
+                    .thenReturn(Stream.of(first, second).onClose(() -> closed.set(true)));
+            when(participationRepository.findIdsBySessionIds(Arrays.asList(1L, 2L)))
+                    .thenReturn(Arrays.asList(new ParticipationId(2L, 5L), new ParticipationId(2L, 6L)));
+            List<SessionDto> received = new ArrayList<>();
+
+            // Act
+            sessionService.forEachSession(received::add);
+
+            // Assert
+            assertEquals(Arrays.asList(first, second), received);
+            assertEquals(Collections.emptyList(), first.getUsers());
+            assertEquals(Arrays.asList(5L, 6L), second.getUsers());
+            assertTrue(closed.get());
+            verify(sessionRepository, never()).findAll();
+            verify(participationRepository, times(1)).findIdsBySessionIds(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("Find Page Tests")
+    class FindPageTests {
+
+        private final SessionFilter noFilter = SessionFilter.builder().build();
+
+        private SessionDto summary(long id, long dateMillis) {
+            return new SessionDto(id, "Session " + id, new Date(dateMillis), 1L, "desc", null, 0L, null, null);
+        }
+
+        @Test
+        @DisplayName("Should return the first page with only a next cursor")
+        void shouldReturnFirstPage() {
+            // Arrange
+            when(sessionRepository.findSummariesAfter(isNull(), isNull(), isNull(), isNull(), isNull(), eq(false), any()))
+                    .thenReturn(Arrays.asList(summary(1L, 1000L), summary(2L, 2000L), summary(3L, 3000L)));
+            when(participationRepository.findIdsBySessionIds(Arrays.asList(1L, 2L)))
+                    .thenReturn(Collections.singletonList(new ParticipationId(2L, 7L)));
+
+            // Act
+            SessionPage page = sessionService.findPage(null, false, 2, noFilter);
+
+            // Assert
+            assertEquals(2, page.getItems().size());
+            assertEquals(Collections.singletonList(7L), page.getItems().get(1).getUsers());
+            assertEquals(new SessionCursor(2000L, 2L), SessionCursor.decode(page.getNextCursor()));
+            assertNull(page.getPreviousCursor());
+        }
+
+        @Test
+        @DisplayName("Should walk backwards and return the rows in ascending order")
+        void shouldWalkBackwards() {
+            // Arrange
+            SessionCursor cursor = new SessionCursor(3000L, 3L);
+            when(sessionRepository.findSummariesBefore(eq(cursor.getDate()), eq(3L), isNull(), isNull(), isNull(), eq(false), any()))
+                    .thenReturn(Arrays.asList(summary(2L, 2000L), summary(1L, 1000L)));
+            when(participationRepository.findIdsBySessionIds(anyList())).thenReturn(Collections.emptyList());
+
+            // Act
+            SessionPage page = sessionService.findPage(cursor, true, 2, noFilter);
+
+            // Assert
+            assertEquals(Arrays.asList(1L, 2L), Arrays.asList(page.getItems().get(0).getId(), page.getItems().get(1).getId()));
+            assertEquals(new SessionCursor(2000L, 2L), SessionCursor.decode(page.getNextCursor()));
+            assertNull(page.getPreviousCursor());
+        }
+
+        @Test
+        @DisplayName("Should return an empty page without cursors")
+        void shouldReturnEmptyPage() {
+            // Arrange
+            SessionCursor cursor = new SessionCursor(3000L, 3L);
+            when(sessionRepository.findSummariesAfter(eq(cursor.getDate()), eq(3L), isNull(), isNull(), isNull(), eq(false), any()))
+                    .thenReturn(Collections.emptyList());
+
+            // Act
+            SessionPage page = sessionService.findPage(cursor, false, 2, noFilter);
+
+            // Assert
+            assertTrue(page.getItems().isEmpty());
+            assertNull(page.getNextCursor());
+            assertNull(page.getPreviousCursor());
+            verifyNoInteractions(participationRepository);
+        }
     }
 
     @Nested
@@ -173,21 +502,85 @@ class SessionServiceTest {
     class UpdateTests {
 
         @Test
-        @DisplayName("Should update session successfully")
+        @DisplayName("Should update session at the expected version")
         void shouldUpdateSessionSuccessfully() {
             // Arrange
             Session updatedSession = mockSession;
             updatedSession.setName("Updated Session");
+            when(sessionRepository.existsById(1L)).thenReturn(true);
             when(sessionRepository.save(any(Session.class))).thenReturn(updatedSession);
 
             // Act
-            Session result = sessionService.update(1L, updatedSession);
+            Session result = sessionService.update(1L, 4L, updatedSession);
 
             // Assert
             assertNotNull(result);
             assertEquals("Updated Session", result.getName());
             assertEquals(1L, result.getId());
-            verify(sessionRepository, times(1)).save(any(Session.class));
+            ArgumentCaptor<Session> captor = ArgumentCaptor.forClass(Session.class);
+            verify(sessionRepository, times(1)).save(captor.capture());
+            assertEquals(4L, captor.getValue().getVersion());
+        }
+
+        @Test
+        @DisplayName("Should keep the stored roster when the update leaves users out")
+        void shouldKeepRosterWhenUsersAreLeftOut() {
+            // Arrange
+            Session stored = new Session();
+            stored.setId(1L);
+            stored.setVersion(4L);
+            stored.setSeatsTaken(2);
+            stored.setUsers(new ArrayList<>(Arrays.asList(mockUser, new User())));
+            mockSession.setUsers(null);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(stored));
+            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+
+            // Act
+            sessionService.update(1L, 4L, mockSession);
+
+            // Assert
+            ArgumentCaptor<Session> captor = ArgumentCaptor.forClass(Session.class);
+            verify(sessionRepository).save(captor.capture());
+            assertSame(stored.getUsers(), captor.getValue().getUsers());
+            assertEquals(2, captor.getValue().getSeatsTaken());
+        }
+
+        @Test
+        @DisplayName("Should refuse a roster-less update read at another version")
+        void shouldRejectStaleUpdateWithoutUsers() {
+            // Arrange
+            Session stored = new Session();
+            stored.setVersion(5L);
+            mockSession.setUsers(null);
+            when(sessionRepository.findById(1L)).thenReturn(Optional.of(stored));
+
+            // Act & Assert
+            assertThrows(PreconditionFailedException.class, () -> sessionService.update(1L, 4L, mockSession));
+            verify(sessionRepository, never()).save(any(Session.class));
+        }
+
+        @Test
+        @DisplayName("Should report a concurrent change as a failed precondition")
+        void shouldFailOnVersionConflict() {
+            // Arrange
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.save(any(Session.class)))
+                    .thenThrow(new ObjectOptimisticLockingFailureException(Session.class, 1L));
+
+            // Act & Assert
+            assertThrows(PreconditionFailedException.class, () -> sessionService.update(1L, 0L, mockSession));
+            verify(sessionCache, never()).evict(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should not create a session when updating an unknown id")
+        void shouldThrowNotFoundOnUnknownSession() {
+            // Arrange
+            when(sessionRepository.existsById(999L)).thenReturn(false);
+
+            // Act & Assert
+            assertThrows(NotFoundException.class, () -> sessionService.update(999L, 0L, mockSession));
+            verify(sessionRepository, never()).save(any(Session.class));
         }
     }
 
@@ -196,77 +589,177 @@ class SessionServiceTest {
     class ParticipationTests {
 
         @Test
-        @DisplayName("Should add participant successfully")
+        @DisplayName("Should add participant with a single insert and bump the session version")
         void shouldAddParticipantSuccessfully() {
             // Arrange
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-            when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
-            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(1L)).thenReturn(1);
 
             // Act
             sessionService.participate(1L, 1L);
 
             // Assert
-            verify(sessionRepository, times(1)).findById(1L);
-            verify(userRepository, times(1)).findById(1L);
-            verify(sessionRepository, times(1)).save(any(Session.class));
+            ArgumentCaptor<Participation> captor = ArgumentCaptor.forClass(Participation.class);
+            verify(participationRepository, times(1)).saveAndFlush(captor.capture());
+            assertEquals(new ParticipationId(1L, 1L), captor.getValue().getId());
+            assertTrue(captor.getValue().isNew());
+            verify(seatLedger).taken(1L);
+            verify(rosterEvictor).evict(1L);
+            verify(sessionRepository, never()).findById(anyLong());
+            verify(sessionRepository, never()).save(any(Session.class));
+        }
+
+        @Test
+        @DisplayName("Should keep a freed seat for the first waiting user")
+        void shouldRefuseParticipationWhileOthersWait() {
+            // Arrange
+            when(waitlistQueue.first(1L)).thenReturn(7L);
+
+            // Act & Assert
+            ConflictException exception = assertThrows(ConflictException.class, () -> sessionService.participate(1L, 1L));
+            assertEquals("Session seats go to its waitlist first", exception.getMessage());
+            verify(sessionRepository, never()).reserveSeat(anyLong());
+        }
+
+        @Test
+        @DisplayName("Should seat the first waiting user")
+        void shouldSeatFirstWaitingUser() {
+            // Arrange
+            when(waitlistQueue.first(1L)).thenReturn(1L);
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+
+            // Act
+            sessionService.participate(1L, 1L);
+
+            // Assert
+            verify(participationRepository).saveAndFlush(any(Participation.class));
         }
 
         @Test
         @DisplayName("Should throw NotFoundException when session not found for participation")
         void shouldThrowNotFoundExceptionWhenSessionNotFoundForParticipation() {
             // Arrange
-            when(sessionRepository.findById(999L)).thenReturn(Optional.empty());
-            when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(999L)).thenReturn(0);
+            when(sessionRepository.existsById(999L)).thenReturn(false);
 
             // Act & Assert
             assertThrows(NotFoundException.class, () -> sessionService.participate(999L, 1L));
-            verify(sessionRepository, times(1)).findById(999L);
-            verify(userRepository, times(1)).findById(1L);
-            verify(sessionRepository, never()).save(any(Session.class));
+            verify(sessionRepository, times(1)).reserveSeat(999L);
+            verifyNoInteractions(participationRepository);
+        }
+
+        @Test
+        @DisplayName("Should refuse a seat the database no longer has")
+        void shouldRejectWhenSessionIsFull() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(1L)).thenReturn(0);
+            when(sessionRepository.existsById(1L)).thenReturn(true);
+
+            // Act & Assert
+            ConflictException exception = assertThrows(ConflictException.class, () -> sessionService.participate(1L, 1L));
+            assertEquals("Session is full", exception.getMessage());
+            verify(seatLedger).full(1L);
+            verifyNoInteractions(participationRepository);
+        }
+
+        @Test
+        @DisplayName("Should refuse a session the seat ledger knows to be full without querying")
+        void shouldRejectFromLedgerWithoutDatabase() {
+            // Arrange
+            when(seatLedger.isFull(1L)).thenReturn(true);
+
+            // Act & Assert
+            assertThrows(ConflictException.class, () -> sessionService.participate(1L, 1L));
+            verifyNoInteractions(sessionRepository, userRepository, participationRepository, transactionManager);
         }
 
         @Test
         @DisplayName("Should throw BadRequestException when user already participates")
         void shouldThrowBadRequestExceptionWhenUserAlreadyParticipates() {
             // Arrange
-            mockSession.getUsers().add(mockUser);
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-            when(userRepository.findById(1L)).thenReturn(Optional.of(mockUser));
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+            when(participationRepository.saveAndFlush(any(Participation.class)))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"));
 
             // Act & Assert
             assertThrows(BadRequestException.class, () -> sessionService.participate(1L, 1L));
-            verify(sessionRepository, times(1)).findById(1L);
-            verify(userRepository, times(1)).findById(1L);
-            verify(sessionRepository, never()).save(any(Session.class));
+            verify(participationRepository, times(1)).saveAndFlush(any(Participation.class));
+        }
+
+        @Test
+        @DisplayName("Should retry a participation that lost a lock conflict")
+        void shouldRetryOnLockConflict() {
+            // Arrange
+            when(userRepository.existsById(1L)).thenReturn(true);
+            when(sessionRepository.reserveSeat(1L)).thenReturn(1);
+            when(participationRepository.saveAndFlush(any(Participation.class)))
+                    .thenThrow(new CannotAcquireLockException("deadlock"))
+                    .thenReturn(new Participation(1L, 1L));
+
+            // Act
+            sessionService.participate(1L, 1L);
+
+            // Assert
+            verify(sessionRepository, times(2)).reserveSeat(1L);
+            verify(transactionManager, times(2)).getTransaction(any());
+        }
+
+        @Test
+        @DisplayName("Should give up after repeated lock conflicts")
+        void shouldGiveUpAfterRepeatedConflicts() {
+            // Arrange
+            when(sessionRepository.releaseSeat(1L)).thenReturn(1);
+            when(participationRepository.deleteParticipation(1L, 1L))
+                    .thenThrow(new CannotAcquireLockException("deadlock"));
+
+            // Act & Assert
+            assertThrows(CannotAcquireLockException.class, () -> sessionService.noLongerParticipate(1L, 1L));
+            verify(participationRepository, times(3)).deleteParticipation(1L, 1L);
         }
 
         @Test
-        @DisplayName("Should remove participant successfully")
+        @DisplayName("Should remove participant with a single delete")
         void shouldRemoveParticipantSuccessfully() {
             // Arrange
-            mockSession.getUsers().add(mockUser);
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
-            when(sessionRepository.save(any(Session.class))).thenReturn(mockSession);
+            when(sessionRepository.releaseSeat(1L)).thenReturn(1);
+            when(participationRepository.deleteParticipation(1L, 1L)).thenReturn(1);
 
             // Act
             sessionService.noLongerParticipate(1L, 1L);
 
             // Assert
-            verify(sessionRepository, times(1)).findById(1L);
-            verify(sessionRepository, times(1)).save(any(Session.class));
+            verify(participationRepository, times(1)).deleteParticipation(1L, 1L);
+            verify(seatLedger).released(1L);
+            verify(rosterEvictor).evict(1L);
+            verify(eventPublisher).publishEvent(new SeatReleasedEvent(1L));
+            verify(sessionRepository, never()).save(any(Session.class));
         }
 
         @Test
         @DisplayName("Should throw BadRequestException when user does not participate")
         void shouldThrowBadRequestExceptionWhenUserDoesNotParticipate() {
             // Arrange
-            when(sessionRepository.findById(1L)).thenReturn(Optional.of(mockSession));
+            when(sessionRepository.releaseSeat(1L)).thenReturn(1);
+            when(participationRepository.deleteParticipation(1L, 1L)).thenReturn(0);
 
             // Act & Assert
             assertThrows(BadRequestException.class, () -> sessionService.noLongerParticipate(1L, 1L));
-            verify(sessionRepository, times(1)).findById(1L);
             verify(sessionRepository, never()).save(any(Session.class));
         }
+
+        @Test
+        @DisplayName("Should throw NotFoundException when leaving an unknown session")
+        void shouldThrowNotFoundExceptionWhenLeavingUnknownSession() {
+            // Arrange
+            when(sessionRepository.releaseSeat(999L)).thenReturn(0);
+
+            // Act & Assert
+            assertThrows(NotFoundException.class, () -> sessionService.noLongerParticipate(999L, 1L));
+            verifyNoInteractions(participationRepository);
+        }
     }
-}
\ No newline at end of file
+}
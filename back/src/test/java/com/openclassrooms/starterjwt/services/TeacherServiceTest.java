@@ -1,5 +1,7 @@
 package com.openclassrooms.starterjwt.services;
 
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -10,15 +12,23 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.openclassrooms.starterjwt.dto.TeacherDto;
+import com.openclassrooms.starterjwt.mapper.TeacherMapper;
 import com.openclassrooms.starterjwt.models.Teacher;
 import com.openclassrooms.starterjwt.repository.TeacherRepository;
 
+import org.springframework.data.domain.Sort;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
-import java.util.Optional;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("TeacherService Tests")
@@ -27,6 +37,15 @@ public class TeacherServiceTest {
     @Mock
     private TeacherRepository teacherRepository;
 
+    @Mock
+    private TeacherMapper teacherMapper;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
     @InjectMocks
     private TeacherService teacherService;
 
@@ -47,6 +66,22 @@ public class TeacherServiceTest {
         mockTeacher2.setLastName("Smith");
     }
 
+    private TeacherRepository.ListVersion version(long count, Long maxId, LocalDateTime lastUpdate) {
+        return new TeacherRepository.ListVersion() {
+            public long getCount() {
+                return count;
+            }
+
+            public Long getMaxId() {
+                return maxId;
+            }
+
+            public LocalDateTime getLastUpdate() {
+                return lastUpdate;
+            }
+        };
+    }
+
     @Nested
     @DisplayName("findAll Tests")
     class FindAllTests {
@@ -56,7 +91,7 @@ public class TeacherServiceTest {
         void shouldReturnAllTeachersWhenTeachersExist() {
             // Arrange
             List<Teacher> expectedTeachers = Arrays.asList(mockTeacher1, mockTeacher2);
-            when(teacherRepository.findAll()).thenReturn(expectedTeachers);
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(expectedTeachers);
 
             // Act
             List<Teacher> result = teacherService.findAll();
@@ -65,14 +100,14 @@ public class TeacherServiceTest {
             assertNotNull(result);
             assertEquals(2, result.size());
             assertEquals(expectedTeachers, result);
-            verify(teacherRepository, times(1)).findAll();
+            verify(teacherRepository, times(1)).findAll(any(Sort.class));
         }
 
         @Test
         @DisplayName("Should return empty list when no teachers exist")
         void shouldReturnEmptyListWhenNoTeachersExist() {
             // Arrange
-            when(teacherRepository.findAll()).thenReturn(Collections.emptyList());
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(Collections.emptyList());
 
             // Act
             List<Teacher> result = teacherService.findAll();
@@ -80,7 +115,24 @@ public class TeacherServiceTest {
             // Assert
             assertNotNull(result);
             assertTrue(result.isEmpty());
-            verify(teacherRepository, times(1)).findAll();
+        }
+
+        @Test
+        @DisplayName("Should serialize the list once when building the snapshot")
+        void shouldPreSerializeList() {
+            // Arrange
+            List<Teacher> teachers = Arrays.asList(mockTeacher1, mockTeacher2);
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(teachers);
+            when(teacherMapper.toDto(teachers)).thenReturn(Collections.singletonList(
+                    new TeacherDto(1L, "Doe", "John", null, null)));
+
+            // Act
+            String first = new String(teacherService.snapshot().getListJson(), StandardCharsets.UTF_8);
+            teacherService.snapshot();
+
+            // Assert
+            assertTrue(first.contains("\"firstName\":\"John\""));
+            verify(teacherMapper, times(1)).toDto(teachers);
         }
     }
 
@@ -89,34 +141,90 @@ public class TeacherServiceTest {
     class FindByIdTests {
 
         @Test
-        @DisplayName("Should return teacher when found")
+        @DisplayName("Should return teacher when found, without another query")
         void shouldReturnTeacherWhenFound() {
             // Arrange
-            when(teacherRepository.findById(1L)).thenReturn(Optional.of(mockTeacher1));
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(mockTeacher1, mockTeacher2));
 
             // Act
             Teacher result = teacherService.findById(1L);
+            Teacher other = teacherService.findById(2L);
 
             // Assert
             assertNotNull(result);
             assertEquals(mockTeacher1.getId(), result.getId());
             assertEquals(mockTeacher1.getFirstName(), result.getFirstName());
             assertEquals(mockTeacher1.getLastName(), result.getLastName());
-            verify(teacherRepository, times(1)).findById(1L);
+            assertSame(mockTeacher2, other);
+            verify(teacherRepository, times(1)).findAll(any(Sort.class));
+            verify(teacherRepository, never()).findById(anyLong());
         }
 
         @Test
         @DisplayName("Should return null when teacher not found")
         void shouldReturnNullWhenTeacherNotFound() {
             // Arrange
-            when(teacherRepository.findById(999L)).thenReturn(Optional.empty());
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(mockTeacher1, mockTeacher2));
 
             // Act
             Teacher result = teacherService.findById(999L);
 
             // Assert
             assertNull(result);
-            verify(teacherRepository, times(1)).findById(999L);
         }
     }
-}
\ No newline at end of file
+
+    @Nested
+    @DisplayName("Snapshot refresh Tests")
+    class RefreshTests {
+
+        @Test
+        @DisplayName("Should replace the snapshot after a teacher write")
+        void shouldRebuildOnChange() {
+            // Arrange
+            when(teacherRepository.findAll(any(Sort.class)))
+                    .thenReturn(Collections.singletonList(mockTeacher1), Arrays.asList(mockTeacher1, mockTeacher2));
+            TeacherSnapshot before = teacherService.snapshot();
+
+            // Act
+            teacherService.onTeacherChanged(new TeacherChangedEvent(2L));
+            TeacherSnapshot after = teacherService.snapshot();
+
+            // Assert
+            assertNull(before.findById(2L));
+            assertSame(mockTeacher2, after.findById(2L));
+            assertEquals(before.getVersion() + 1, after.getVersion());
+            assertNotEquals(before.getListETag(), after.getListETag());
+        }
+
+        @Test
+        @DisplayName("Should rebuild only when the table moved on")
+        void shouldRebuildOnlyWhenVersionChanged() {
+            // Arrange
+            when(teacherRepository.findAll(any(Sort.class))).thenReturn(Arrays.asList(mockTeacher1, mockTeacher2));
+            when(teacherRepository.findListVersion())
+                    .thenReturn(version(2L, 2L, null), version(3L, 3L, null));
+            TeacherSnapshot built = teacherService.snapshot();
+
+            // Act
+            teacherService.refreshIfChanged();
+            TeacherSnapshot unchanged = teacherService.snapshot();
+            teacherService.refreshIfChanged();
+
+            // Assert
+            assertSame(built, unchanged);
+            assertNotSame(unchanged, teacherService.snapshot());
+            verify(teacherRepository, times(2)).findAll(any(Sort.class));
+        }
+
+        @Test
+        @DisplayName("Should not query before the first snapshot is needed")
+        void shouldSkipCheckWithoutSnapshot() {
+            // Act
+            teacherService.refreshIfChanged();
+
+            // Assert
+            verifyNoInteractions(teacherRepository);
+        }
+    }
+}
@@ -8,14 +8,30 @@ import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import com.openclassrooms.starterjwt.dto.MultiGetResult;
+import com.openclassrooms.starterjwt.exception.BadRequestException;
 import com.openclassrooms.starterjwt.models.User;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
 import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.security.jwt.TokenRevocationList;
+import com.openclassrooms.starterjwt.security.services.RefreshTokenService;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Collectors;
 
 @ExtendWith(MockitoExtension.class)
 @DisplayName("UserService Tests")
@@ -24,6 +40,33 @@ public class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private ParticipationRepository participationRepository;
+
+    @Mock
+    private RosterEvictor rosterEvictor;
+
+    @Mock
+    private SessionCache sessionCache;
+
+    @Mock
+    private SeatLedger seatLedger;
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private TokenRevocationList tokenRevocationList;
+
+    @Mock
+    private RegisteredEmailIndex registeredEmailIndex;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService;
 
@@ -80,13 +123,166 @@ public class UserServiceTest {
     void shouldDeleteUserSuccessfully() {
         // Arrange
         Long userId = 1L;
+        when(participationRepository.findSessionIdsByUserId(userId)).thenReturn(Arrays.asList(3L, 5L));
         doNothing().when(userRepository).deleteById(userId);
 
         // Act
         userService.delete(userId);
 
         // Assert
-        verify(userRepository, times(1)).deleteById(userId);
+        InOrder seatsFirst = inOrder(participationRepository, sessionRepository, userRepository);
+        seatsFirst.verify(participationRepository).findSessionIdsByUserId(userId);
+        seatsFirst.verify(sessionRepository).releaseSeatsOf(userId);
+        seatsFirst.verify(participationRepository).deleteByUserId(userId);
+        seatsFirst.verify(userRepository).deleteById(userId);
+        for (Long sessionId : Arrays.asList(3L, 5L)) {
+            verify(rosterEvictor).evict(sessionId);
+            verify(sessionCache).evict(sessionId);
+            verify(seatLedger).forget(sessionId);
+            verify(eventPublisher).publishEvent(new SeatReleasedEvent(sessionId));
+        }
+        verify(refreshTokenService).revokeAll(userId);
+        verify(tokenRevocationList).revokeUser(userId);
+        verify(registeredEmailIndex).recordDeletion();
+    }
+
+    @Test
+    @DisplayName("Should revoke the tokens of a deleted user only once the deletion committed")
+    void shouldRevokeTokensAfterCommit() {
+        // Arrange
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // Act
+            userService.delete(1L);
+
+            // Assert
+            verify(tokenRevocationList, never()).revokeUser(1L);
+            for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+                synchronization.afterCommit();
+            }
+            verify(tokenRevocationList).revokeUser(1L);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Nested
+    @DisplayName("findAllById Tests")
+    class FindAllByIdTests {
+
+        private User user(long id) {
+            User user = new User();
+            user.setId(id);
+            return user;
+        }
+
+        @Test
+        @DisplayName("Should load all users in one query and keep the requested order")
+        void shouldKeepRequestedOrder() {
+            // Arrange
+            when(userRepository.findAllById(new LinkedHashSet<>(Arrays.asList(3L, 1L, 2L))))
+                    .thenReturn(Arrays.asList(user(1L), user(2L), user(3L)));
+
+            // Act
+            List<User> result = userService.findAllById(Arrays.asList(3L, 1L, 2L, 1L));
+
+            // Assert
+            assertEquals(Arrays.asList(3L, 1L, 2L), result.stream().map(User::getId).collect(Collectors.toList()));
+            verify(userRepository, times(1)).findAllById(any());
+            verify(userRepository, never()).findById(any());
+        }
+
+        @Test
+        @DisplayName("Should name the unknown ids")
+        void shouldNameUnknownIds() {
+            // Arrange
+            when(userRepository.findAllById(any())).thenReturn(Collections.singletonList(user(1L)));
+
+            // Act & Assert
+            BadRequestException e = assertThrows(BadRequestException.class,
+                    () -> userService.findAllById(Arrays.asList(1L, 8L, 9L)));
+            assertEquals("Unknown user ids: [8, 9]", e.getMessage());
+        }
+
+        @Test
+        @DisplayName("Should list the misses of a multi-get in request order")
+        void shouldListMissesInOrder() {
+            // Arrange
+            when(userRepository.findAllById(Arrays.asList(9L, 2L, 8L))).thenReturn(Collections.singletonList(user(2L)));
+
+            // Act
+            MultiGetResult<User> result = userService.findByIds(Arrays.asList(9L, 2L, 8L));
+
+            // Assert
+            assertEquals(Collections.singletonList(2L), result.getItems().stream().map(User::getId).collect(Collectors.toList()));
+            assertEquals(Arrays.asList(9L, 8L), result.getMissing());
+        }
+
+        @Test
+        @DisplayName("Should not query for an empty list")
+        void shouldNotQueryForEmptyList() {
+            // Act
+            List<User> result = userService.findAllById(null);
+
+            // Assert
+            assertTrue(result.isEmpty());
+            verifyNoInteractions(userRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Registration Tests")
+    class RegistrationTests {
+
+        @Test
+        @DisplayName("Should not query the database for an address the index rules out")
+        void shouldSkipQueryForUnknownEmail() {
+            // Arrange
+            when(registeredEmailIndex.mightBeTaken("new@test.com")).thenReturn(false);
+
+            // Act
+            boolean taken = userService.isEmailTaken("new@test.com");
+
+            // Assert
+            assertFalse(taken);
+            verifyNoInteractions(userRepository);
+        }
+
+        @Test
+        @DisplayName("Should confirm a possible match with the database")
+        void shouldConfirmPossibleMatchWithDatabase() {
+            // Arrange
+            when(registeredEmailIndex.mightBeTaken("test@test.com")).thenReturn(true);
+            when(userRepository.existsByEmail("test@test.com")).thenReturn(true);
+
+            // Act & Assert
+            assertTrue(userService.isEmailTaken("test@test.com"));
+        }
+
+        @Test
+        @DisplayName("Should save the user and index its email")
+        void shouldSaveAndIndexUser() {
+            // Arrange
+            when(userRepository.saveAndFlush(mockUser)).thenReturn(mockUser);
+
+            // Act
+            User result = userService.register(mockUser);
+
+            // Assert
+            assertEquals(mockUser, result);
+            verify(registeredEmailIndex).add("test@test.com");
+        }
+
+        @Test
+        @DisplayName("Should map a unique constraint violation to a bad request")
+        void shouldMapUniqueViolationToBadRequest() {
+            // Arrange
+            when(userRepository.saveAndFlush(mockUser)).thenThrow(new DataIntegrityViolationException("duplicate"));
+
+            // Act & Assert
+            assertThrows(BadRequestException.class, () -> userService.register(mockUser));
+            verify(registeredEmailIndex, never()).add(anyString());
+        }
     }
 
 }
\ No newline at end of file
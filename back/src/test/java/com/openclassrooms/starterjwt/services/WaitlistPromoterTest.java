@@ -0,0 +1,67 @@
+package com.openclassrooms.starterjwt.services;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.QueryTimeoutException;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistPromoter Tests")
+class WaitlistPromoterTest {
+
+    @Mock
+    private WaitlistService waitlistService;
+
+    @InjectMocks
+    private WaitlistPromoter waitlistPromoter;
+
+    @Test
+    @DisplayName("Should promote each pending session once per run")
+    void shouldPromotePendingSessionOnce() {
+        // Arrange
+        waitlistPromoter.onSeatReleased(new SeatReleasedEvent(1L));
+        waitlistPromoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        // Act
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+
+        // Assert
+        verify(waitlistService, times(1)).promote(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep a session pending when its promotion fails")
+    void shouldRetryFailedPromotion() {
+        // Arrange
+        when(waitlistService.promote(1L)).thenThrow(new QueryTimeoutException("lock wait")).thenReturn(1);
+        waitlistPromoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        // Act
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+        waitlistPromoter.promotePending();
+
+        // Assert
+        verify(waitlistService, times(2)).promote(1L);
+    }
+
+    @Test
+    @DisplayName("Should not promote a session deleted while pending")
+    void shouldDropDeletedSession() {
+        // Arrange
+        waitlistPromoter.onSeatReleased(new SeatReleasedEvent(1L));
+
+        // Act
+        waitlistPromoter.onSessionDeleted(new SessionDeletedEvent(1L));
+        waitlistPromoter.promotePending();
+
+        // Assert
+        verifyNoInteractions(waitlistService);
+    }
+}
@@ -0,0 +1,89 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistQueue Tests")
+class WaitlistQueueTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    private WaitlistQueue waitlistQueue;
+
+    @BeforeEach
+    void setUp() {
+        waitlistQueue = new WaitlistQueue(waitlistRepository, 100, 60_000);
+    }
+
+    private static WaitlistEntry entry(long id, long userId) {
+        WaitlistEntry entry = new WaitlistEntry(1L, userId);
+        entry.setId(id);
+        return entry;
+    }
+
+    @Test
+    @DisplayName("Should load a session's waitlist once and answer positions from memory")
+    void shouldLoadOnce() {
+        // Arrange
+        when(waitlistRepository.findBySessionId(1L)).thenReturn(Arrays.asList(entry(3, 30), entry(7, 70)));
+
+        // Act
+        int first = waitlistQueue.position(1L, 30L);
+        int second = waitlistQueue.position(1L, 70L);
+
+        // Assert
+        assertEquals(1, first);
+        assertEquals(2, second);
+        assertEquals(0, waitlistQueue.position(1L, 99L));
+        assertEquals(30L, waitlistQueue.first(1L));
+        verify(waitlistRepository, times(1)).findBySessionId(1L);
+    }
+
+    @Test
+    @DisplayName("Should move everybody up when someone leaves")
+    void shouldShiftOnRemoval() {
+        // Arrange
+        when(waitlistRepository.findBySessionId(1L))
+                .thenReturn(Arrays.asList(entry(1, 10), entry(2, 20), entry(3, 30)));
+        waitlistQueue.first(1L);
+
+        // Act
+        waitlistQueue.removed(1L, 10L);
+
+        // Assert
+        assertEquals(20L, waitlistQueue.first(1L));
+        assertEquals(2, waitlistQueue.position(1L, 30L));
+        assertEquals(0, waitlistQueue.position(1L, 10L));
+    }
+
+    @Test
+    @DisplayName("Should keep entry order when additions arrive out of order")
+    void shouldOrderAdditionsByEntryId() {
+        // Arrange
+        when(waitlistRepository.findBySessionId(1L)).thenReturn(Collections.emptyList());
+        assertNull(waitlistQueue.first(1L));
+
+        // Act
+        for (int i = 20; i > 0; i--) {
+            waitlistQueue.added(entry(i, i * 10L));
+        }
+
+        // Assert
+        assertEquals(10L, waitlistQueue.first(1L));
+        assertEquals(20, waitlistQueue.position(1L, 200L));
+    }
+}
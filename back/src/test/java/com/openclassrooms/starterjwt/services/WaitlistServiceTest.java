@@ -0,0 +1,237 @@
+package com.openclassrooms.starterjwt.services;
+
+import com.openclassrooms.starterjwt.exception.BadRequestException;
+import com.openclassrooms.starterjwt.exception.ConflictException;
+import com.openclassrooms.starterjwt.exception.NotFoundException;
+import com.openclassrooms.starterjwt.models.ParticipationId;
+import com.openclassrooms.starterjwt.models.WaitlistEntry;
+import com.openclassrooms.starterjwt.repository.ParticipationRepository;
+import com.openclassrooms.starterjwt.repository.SessionRepository;
+import com.openclassrooms.starterjwt.repository.UserRepository;
+import com.openclassrooms.starterjwt.repository.WaitlistRepository;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WaitlistService Tests")
+class WaitlistServiceTest {
+
+    @Mock
+    private WaitlistRepository waitlistRepository;
+
+    @Mock
+    private WaitlistQueue waitlistQueue;
+
+    @Mock
+    private SessionRepository sessionRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ParticipationRepository participationRepository;
+
+    @Mock
+    private SessionService sessionService;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @InjectMocks
+    private WaitlistService waitlistService;
+
+    private static SessionRepository.Seats seats(Integer capacity, int seatsTaken) {
+        return new SessionRepository.Seats() {
+            @Override
+            public Integer getCapacity() {
+                return capacity;
+            }
+
+            @Override
+            public int getSeatsTaken() {
+                return seatsTaken;
+            }
+        };
+    }
+
+    @Nested
+    @DisplayName("Join Tests")
+    class JoinTests {
+
+        @Test
+        @DisplayName("Should queue a user for a full session and return the position")
+        void shouldJoinFullSession() {
+            // Arrange
+            when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(2, 2)));
+            when(userRepository.existsById(5L)).thenReturn(true);
+            WaitlistEntry saved = new WaitlistEntry(1L, 5L);
+            saved.setId(10L);
+            when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class))).thenReturn(saved);
+            when(waitlistQueue.position(1L, 5L)).thenReturn(2);
+
+            // Act
+            int position = waitlistService.join(1L, 5L);
+
+            // Assert
+            assertEquals(2, position);
+            verify(waitlistQueue).added(saved);
+            verify(eventPublisher).publishEvent(new SeatReleasedEvent(1L));
+        }
+
+        @Test
+        @DisplayName("Should refuse to queue for a session with free seats")
+        void shouldRejectSessionWithFreeSeats() {
+            // Arrange
+            when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(2, 1)));
+            when(userRepository.existsById(5L)).thenReturn(true);
+
+            // Act & Assert
+            assertThrows(ConflictException.class, () -> waitlistService.join(1L, 5L));
+            verifyNoInteractions(waitlistRepository);
+        }
+
+        @Test
+        @DisplayName("Should refuse to queue a participant")
+        void shouldRejectParticipant() {
+            // Arrange
+            when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(2, 2)));
+            when(userRepository.existsById(5L)).thenReturn(true);
+            when(participationRepository.existsById(new ParticipationId(1L, 5L))).thenReturn(true);
+
+            // Act & Assert
+            assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 5L));
+            verifyNoInteractions(waitlistRepository);
+        }
+
+        @Test
+        @DisplayName("Should refuse to queue a user twice")
+        void shouldRejectDuplicate() {
+            // Arrange
+            when(sessionRepository.findSeatsById(1L)).thenReturn(Optional.of(seats(2, 2)));
+            when(userRepository.existsById(5L)).thenReturn(true);
+            when(waitlistRepository.saveAndFlush(any(WaitlistEntry.class)))
+                    .thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+            // Act & Assert
+            assertThrows(BadRequestException.class, () -> waitlistService.join(1L, 5L));
+            verify(waitlistQueue, never()).added(any());
+        }
+
+        @Test
+        @DisplayName("Should throw NotFoundException for an unknown session")
+        void shouldThrowNotFoundForUnknownSession() {
+            // Arrange
+            when(sessionRepository.findSeatsById(9L)).thenReturn(Optional.empty());
+
+            // Act & Assert
+            assertThrows(NotFoundException.class, () -> waitlistService.join(9L, 5L));
+        }
+    }
+
+    @Nested
+    @DisplayName("Leave and Position Tests")
+    class LeaveTests {
+
+        @Test
+        @DisplayName("Should remove the entry and update the queue view")
+        void shouldLeave() {
+            // Arrange
+            when(waitlistRepository.deleteEntry(1L, 5L)).thenReturn(1);
+
+            // Act
+            waitlistService.leave(1L, 5L);
+
+            // Assert
+            verify(waitlistQueue).removed(1L, 5L);
+        }
+
+        @Test
+        @DisplayName("Should throw BadRequestException when the user is not waiting")
+        void shouldRejectLeaveWhenNotWaiting() {
+            // Arrange
+            when(waitlistRepository.deleteEntry(1L, 5L)).thenReturn(0);
+
+            // Act & Assert
+            assertThrows(BadRequestException.class, () -> waitlistService.leave(1L, 5L));
+            verifyNoInteractions(waitlistQueue);
+        }
+
+        @Test
+        @DisplayName("Should throw NotFoundException for a user who is not waiting")
+        void shouldThrowNotFoundForPositionOfUnknownUser() {
+            // Arrange
+            when(waitlistQueue.position(1L, 5L)).thenReturn(0);
+
+            // Act & Assert
+            assertThrows(NotFoundException.class, () -> waitlistService.position(1L, 5L));
+            verifyNoInteractions(waitlistRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Promotion Tests")
+    class PromoteTests {
+
+        @Test
+        @DisplayName("Should seat waiting users in order until the session is full")
+        void shouldPromoteUntilFull() {
+            // Arrange
+            when(waitlistQueue.first(1L)).thenReturn(5L, 6L, 7L);
+            doNothing().when(sessionService).participate(1L, 5L);
+            doNothing().when(sessionService).participate(1L, 6L);
+            doThrow(new ConflictException("Session is full")).when(sessionService).participate(1L, 7L);
+
+            // Act
+            int promoted = waitlistService.promote(1L);
+
+            // Assert
+            assertEquals(2, promoted);
+            verify(waitlistRepository).deleteEntry(1L, 5L);
+            verify(waitlistRepository).deleteEntry(1L, 6L);
+            verify(waitlistRepository, never()).deleteEntry(1L, 7L);
+        }
+
+        @Test
+        @DisplayName("Should drop an entry whose user already participates")
+        void shouldDropSeatedUser() {
+            // Arrange
+            when(waitlistQueue.first(1L)).thenReturn(5L, (Long) null);
+            doThrow(new BadRequestException()).when(sessionService).participate(1L, 5L);
+
+            // Act
+            int promoted = waitlistService.promote(1L);
+
+            // Assert
+            assertEquals(0, promoted);
+            verify(waitlistRepository).deleteEntry(1L, 5L);
+            verify(waitlistQueue).removed(1L, 5L);
+        }
+
+        @Test
+        @DisplayName("Should do nothing when nobody waits")
+        void shouldNotPromoteEmptyWaitlist() {
+            // Arrange
+            when(waitlistQueue.first(1L)).thenReturn(null);
+
+            // Act
+            int promoted = waitlistService.promote(1L);
+
+            // Assert
+            assertEquals(0, promoted);
+            verifyNoInteractions(sessionService, waitlistRepository);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("BloomFilter Tests")
+class BloomFilterTest {
+
+    @Test
+    @DisplayName("Should always report added keys")
+    void shouldReportAddedKeys() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+
+        // Act
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("key-" + i);
+        }
+
+        // Assert
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain("key-" + i));
+        }
+    }
+
+    @Test
+    @DisplayName("Should keep the false positive rate near the configured one")
+    void shouldKeepFalsePositiveRateNearTarget() {
+        // Arrange
+        BloomFilter filter = new BloomFilter(1_000, 0.01);
+        for (int i = 0; i < 1_000; i++) {
+            filter.add("key-" + i);
+        }
+
+        // Act
+        int falsePositives = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+
+        // Assert
+        assertTrue(falsePositives < 300, "false positives: " + falsePositives);
+    }
+}
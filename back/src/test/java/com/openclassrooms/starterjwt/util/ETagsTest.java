@@ -0,0 +1,40 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("ETags Tests")
+class ETagsTest {
+
+    @Test
+    @DisplayName("Should build a weak tag from the id and fingerprint")
+    void shouldBuildWeakTag() {
+        assertEquals("W/\"7-ff\"", ETags.weak(7L, 255L));
+    }
+
+    @Test
+    @DisplayName("Should compare weakly against every listed tag")
+    void shouldMatchWeakly() {
+        String etag = ETags.weak(7L, 255L);
+
+        assertTrue(ETags.matches("\"7-ff\"", etag));
+        assertTrue(ETags.matches("W/\"1-a\", W/\"7-ff\"", etag));
+        assertTrue(ETags.matches("*", etag));
+        assertFalse(ETags.matches("W/\"7-fe\"", etag));
+        assertFalse(ETags.matches(null, etag));
+    }
+
+    @Test
+    @DisplayName("Should read the version back from a strong tag of the same resource")
+    void shouldReadVersionFromIfMatch() {
+        String etag = ETags.strong(7L, 3L);
+
+        assertEquals(3L, ETags.version(etag, 7L));
+        assertNull(ETags.version(etag, 8L));
+        assertNull(ETags.version("W/" + etag, 7L));
+        assertNull(ETags.version("\"7-\"", 7L));
+        assertNull(ETags.version("\"7-x\"", 7L));
+    }
+}
@@ -0,0 +1,33 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("IdList Tests")
+class IdListTest {
+
+    @Test
+    @DisplayName("Should keep the first occurrence of each id in request order")
+    void shouldDeduplicateInOrder() {
+        assertEquals(Arrays.asList(3L, 1L, 2L), IdList.parse("3, 1,2,3,1", 10));
+    }
+
+    @Test
+    @DisplayName("Should refuse ids that are not numbers")
+    void shouldRejectMalformedIds() {
+        assertThrows(NumberFormatException.class, () -> IdList.parse("1,x", 10));
+        assertThrows(NumberFormatException.class, () -> IdList.parse("", 10));
+        assertThrows(NumberFormatException.class, () -> IdList.parse("1,", 10));
+    }
+
+    @Test
+    @DisplayName("Should refuse more ids than the cap, repeated ones included")
+    void shouldRejectTooManyIds() {
+        assertEquals(3, IdList.parse("1,2,3", 3).size());
+        assertThrows(IllegalArgumentException.class, () -> IdList.parse("1,2,3,1", 3));
+    }
+}
@@ -0,0 +1,59 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("LongKeyedMap Tests")
+class LongKeyedMapTest {
+
+    @Test
+    @DisplayName("Should find every indexed value and nothing else")
+    void shouldFindIndexedValues() {
+        // Arrange
+        List<Long> ids = new ArrayList<>();
+        for (long id = 1; id <= 1_000; id++) {
+            ids.add(id * 7);
+        }
+
+        // Act
+        LongKeyedMap<Long> map = LongKeyedMap.of(ids, id -> id);
+
+        // Assert
+        assertEquals(1_000, map.size());
+        for (Long id : ids) {
+            assertEquals(id, map.get(id));
+        }
+        assertNull(map.get(8));
+        assertNull(map.get(-7));
+    }
+
+    @Test
+    @DisplayName("Should keep the last value of a duplicated key")
+    void shouldReplaceDuplicates() {
+        // Act
+        LongKeyedMap<String> map = LongKeyedMap.of(Arrays.asList("a1", "b2", "c1"), value -> value.charAt(1));
+
+        // Assert
+        assertEquals(2, map.size());
+        assertEquals("c1", map.get('1'));
+        assertEquals("b2", map.get('2'));
+    }
+
+    @Test
+    @DisplayName("Should answer lookups on an empty map")
+    void shouldHandleEmptyMap() {
+        // Act
+        LongKeyedMap<String> map = LongKeyedMap.of(Collections.<String>emptyList(), value -> 0L);
+
+        // Assert
+        assertEquals(0, map.size());
+        assertNull(map.get(0));
+    }
+}
@@ -0,0 +1,73 @@
+package com.openclassrooms.starterjwt.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("TransactionCallbacks Tests")
+class TransactionCallbacksTest {
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Should run callbacks at once outside a transaction")
+    void shouldRunAtOnceOutsideTransaction() {
+        AtomicInteger runs = new AtomicInteger();
+
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+        TransactionCallbacks.afterCompletion(runs::incrementAndGet);
+
+        assertEquals(2, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should run after-commit callbacks on commit only")
+    void shouldRunAfterCommitOnCommitOnly() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        TransactionCallbacks.afterCommit(runs::incrementAndGet);
+
+        // Assert
+        assertEquals(0, runs.get());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(0, runs.get());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+        }
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    @DisplayName("Should run after-completion callbacks on rollback too")
+    void shouldRunAfterCompletionOnRollback() {
+        // Arrange
+        AtomicInteger runs = new AtomicInteger();
+        TransactionSynchronizationManager.initSynchronization();
+
+        // Act
+        TransactionCallbacks.afterCompletion(runs::incrementAndGet);
+
+        // Assert
+        assertEquals(0, runs.get());
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        assertEquals(1, runs.get());
+    }
+}
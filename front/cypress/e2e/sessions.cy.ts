@@ -3,6 +3,7 @@ describe('Session Management', () => {
     cy.intercept('GET', '/api/teacher', { fixture: 'teachers.json' });
     cy.intercept('GET', '/api/teacher/1', { fixture: 'teachers.json' });
     cy.intercept('GET', '/api/session/1', { fixture: 'session-detail.json' });
+    cy.intercept('GET', '/api/session/1/view', { fixture: 'session-view.json' });
   });
 
   describe('Admin User', () => {
@@ -77,13 +78,15 @@ describe('Session Management', () => {
       }).as('participate');
 
       cy.get('[data-testid=detail-button]').click();
-      cy.intercept('GET', '/api/session/1', {
+      cy.intercept('GET', '/api/session/1/view', {
         "id": 1,
         "name": "Yoga Session",
         "description": "Beginner friendly yoga",
         "date": "2024-12-25T10:00:00",
-        "teacher_id": 1,
-        "users": [1, 2, 3, 4]
+        "version": 1,
+        "teacher": { "id": 1, "lastName": "Doe", "firstName": "John" },
+        "participantCount": 4,
+        "participating": true
       });
       cy.get('[data-testid="participate-button"]').click();
       cy.wait('@participate');
@@ -99,17 +102,19 @@ describe('Session Management', () => {
       cy.intercept('POST', '/api/session/*/participate/*', {
         statusCode: 200
       }).as('participate');
-      cy.intercept('GET', '/api/session/1', {
+      cy.intercept('GET', '/api/session/1/view', {
         "id": 1,
         "name": "Yoga Session",
         "description": "Beginner friendly yoga",
         "date": "2024-12-25T10:00:00",
-        "teacher_id": 1,
-        "users": [1, 2, 3, 4]
+        "version": 1,
+        "teacher": { "id": 1, "lastName": "Doe", "firstName": "John" },
+        "participantCount": 4,
+        "participating": true
       });
 
       cy.get('[data-testid=detail-button]').click();
-      cy.intercept('GET', '/api/session/1', { fixture: 'session-detail.json' });
+      cy.intercept('GET', '/api/session/1/view', { fixture: 'session-view.json' });
       cy.get('[data-testid="unparticipate-button"]').click();
       cy.wait('@unParticipate');
 
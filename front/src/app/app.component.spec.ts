@@ -1,9 +1,10 @@
 import {ComponentFixture, TestBed} from '@angular/core/testing';
 import {RouterTestingModule} from '@angular/router/testing';
 import {Router} from '@angular/router';
-import {BehaviorSubject} from 'rxjs';
+import {BehaviorSubject, of} from 'rxjs';
 import {AppComponent} from './app.component';
 import {SessionService} from './services/session.service';
+import {AuthService} from './features/auth/services/auth.service';
 import {HttpClientTestingModule} from '@angular/common/http/testing';
 import {NO_ERRORS_SCHEMA} from '@angular/core';
 
@@ -13,14 +14,18 @@ describe('AppComponent', () => {
   let router: Router;
   let sessionService: SessionService;
   let isLoggedSubject: BehaviorSubject<boolean>;
+  let mockSessionService: any;
+  let mockAuthService: { logout: jest.Mock };
 
   beforeEach(async () => {
     isLoggedSubject = new BehaviorSubject<boolean>(false);
 
-    const mockSessionService = {
+    mockSessionService = {
+      isLogged: false,
       $isLogged: () => isLoggedSubject.asObservable(),
       logOut: jest.fn()
     };
+    mockAuthService = {logout: jest.fn(() => of(undefined))};
 
     await TestBed.configureTestingModule({
       imports: [
@@ -32,6 +37,7 @@ describe('AppComponent', () => {
       ],
       providers: [
         {provide: SessionService, useValue: mockSessionService},
+        {provide: AuthService, useValue: mockAuthService},
       ],
       schemas: [NO_ERRORS_SCHEMA]
     }).compileComponents();
@@ -63,4 +69,18 @@ describe('AppComponent', () => {
     expect(loggedIn.querySelector('[routerlink="me"]')).toBeTruthy();
     expect(loggedIn.querySelector('.link')).toBeTruthy();
   });
+
+  it('should revoke the tokens on logout', () => {
+    // Arrange
+    mockSessionService.isLogged = true;
+    const navigateSpy = jest.spyOn(router, 'navigate').mockResolvedValue(true);
+
+    // Act
+    component.logout();
+
+    // Assert
+    expect(mockAuthService.logout).toHaveBeenCalled();
+    expect(mockSessionService.logOut).toHaveBeenCalled();
+    expect(navigateSpy).toHaveBeenCalledWith(['']);
+  });
 });
@@ -1,6 +1,7 @@
 import {Component} from '@angular/core';
 import {Router} from '@angular/router';
 import {Observable} from 'rxjs';
+import {AuthService} from './features/auth/services/auth.service';
 import {SessionService} from './services/session.service';
 
 @Component({
@@ -11,6 +12,7 @@ import {SessionService} from './services/session.service';
 export class AppComponent {
   constructor(
     private router: Router,
+    private authService: AuthService,
     private sessionService: SessionService) {
   }
 
@@ -19,6 +21,10 @@ export class AppComponent {
   }
 
   public logout(): void {
+    // Revokes the tokens server side; the local session ends whatever the answer
+    if (this.sessionService.isLogged) {
+      this.authService.logout().subscribe({ error: () => undefined });
+    }
     this.sessionService.logOut();
     this.router.navigate([''])
   }
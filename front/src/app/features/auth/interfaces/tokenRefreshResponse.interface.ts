@@ -0,0 +1,5 @@
+export interface TokenRefreshResponse {
+    token: string;
+    type: string;
+    refreshToken: string;
+}
@@ -65,4 +65,23 @@ describe('AuthService', () => {
       req.flush(mockSessionInfo);
     });
   });
+
+  describe('refresh and logout', () => {
+    it('should send the refresh token to the refresh endpoint', () => {
+      service.refresh('refresh-token').subscribe();
+
+      const req = httpMock.expectOne(`${baseUrl}/refresh`);
+      expect(req.request.method).toBe('POST');
+      expect(req.request.body).toEqual({refreshToken: 'refresh-token'});
+      req.flush({token: 'new-token', type: 'Bearer', refreshToken: 'next-refresh-token'});
+    });
+
+    it('should send POST request to logout endpoint', () => {
+      service.logout().subscribe();
+
+      const req = httpMock.expectOne(`${baseUrl}/logout`);
+      expect(req.request.method).toBe('POST');
+      req.flush(null);
+    });
+  });
 });
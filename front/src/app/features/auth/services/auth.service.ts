@@ -3,6 +3,7 @@ import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { LoginRequest } from '../interfaces/loginRequest.interface';
 import { RegisterRequest } from '../interfaces/registerRequest.interface';
+import { TokenRefreshResponse } from '../interfaces/tokenRefreshResponse.interface';
 import { SessionInformation } from 'src/app/interfaces/sessionInformation.interface';
 
 @Injectable({
@@ -21,4 +22,12 @@ export class AuthService {
   public login(loginRequest: LoginRequest): Observable<SessionInformation> {
     return this.httpClient.post<SessionInformation>(`${this.pathService}/login`, loginRequest);
   }
+
+  public refresh(refreshToken: string): Observable<TokenRefreshResponse> {
+    return this.httpClient.post<TokenRefreshResponse>(`${this.pathService}/refresh`, { refreshToken });
+  }
+
+  public logout(): Observable<void> {
+    return this.httpClient.post<void>(`${this.pathService}/logout`, {});
+  }
 }
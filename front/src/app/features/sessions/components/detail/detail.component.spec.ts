@@ -5,10 +5,9 @@ import {ActivatedRoute, Router} from '@angular/router';
 import {of, throwError} from 'rxjs';
 import {DetailComponent} from './detail.component';
 import {SessionApiService} from '../../services/session-api.service';
-import {TeacherService} from '../../../../services/teacher.service';
 import {SessionService} from '../../../../services/session.service';
 import {FormBuilder, ReactiveFormsModule} from '@angular/forms';
-import {Session} from '../../interfaces/session.interface';
+import {SessionView} from '../../interfaces/session-view.interface';
 import {Teacher} from '../../../../interfaces/teacher.interface';
 import {HttpClientModule} from "@angular/common/http";
 import {MatCardModule} from "@angular/material/card";
@@ -21,27 +20,28 @@ describe('DetailComponent', () => {
   let component: DetailComponent;
   let fixture: ComponentFixture<DetailComponent>;
   let mockSessionApiService: jest.Mocked<SessionApiService>;
-  let mockTeacherService: jest.Mocked<TeacherService>;
   let mockMatSnackBar: jest.Mocked<MatSnackBar>;
   let mockRouter: jest.Mocked<Router>;
   let mockSessionService: Partial<SessionService>;
 
   // Mock data
-  const mockSession: Session = {
+  const mockTeacher: Teacher = {
     id: 1,
-    name: 'Yoga Class',
-    description: 'Beginner friendly yoga class',
-    date: new Date(),
-    teacher_id: 1,
-    users: [1, 2, 3],
+    lastName: 'Doe',
+    firstName: 'John',
     createdAt: new Date(),
     updatedAt: new Date()
   };
 
-  const mockTeacher: Teacher = {
+  const mockSession: SessionView = {
     id: 1,
-    lastName: 'Doe',
-    firstName: 'John',
+    name: 'Yoga Class',
+    description: 'Beginner friendly yoga class',
+    date: new Date(),
+    version: 0,
+    teacher: mockTeacher,
+    participantCount: 3,
+    participating: true,
     createdAt: new Date(),
     updatedAt: new Date()
   };
@@ -49,16 +49,12 @@ describe('DetailComponent', () => {
   beforeEach(async () => {
     // Create mocks
     mockSessionApiService = {
-      detail: jest.fn().mockReturnValue(of(mockSession)),
+      view: jest.fn().mockReturnValue(of(mockSession)),
       delete: jest.fn().mockReturnValue(of({})),
       participate: jest.fn().mockReturnValue(of({})),
       unParticipate: jest.fn().mockReturnValue(of({}))
     } as any;
 
-    mockTeacherService = {
-      detail: jest.fn().mockReturnValue(of(mockTeacher))
-    } as any;
-
     mockRouter = {
       navigate: jest.fn()
     } as any;
@@ -96,7 +92,6 @@ describe('DetailComponent', () => {
       providers: [
         FormBuilder,
         {provide: SessionApiService, useValue: mockSessionApiService},
-        {provide: TeacherService, useValue: mockTeacherService},
         {provide: MatSnackBar, useValue: mockMatSnackBar},
         {provide: Router, useValue: mockRouter},
         {provide: SessionService, useValue: mockSessionService},
@@ -118,16 +113,15 @@ describe('DetailComponent', () => {
   });
 
   describe('initialization', () => {
-    it('should fetch session and teacher data on init', fakeAsync(() => {
+    it('should fetch the session view with its teacher on init', fakeAsync(() => {
       fixture.detectChanges();
       tick();
 
-      expect(mockSessionApiService.detail).toHaveBeenCalledWith('1');
-      expect(mockTeacherService.detail).toHaveBeenCalledWith('1');
+      expect(mockSessionApiService.view).toHaveBeenCalledWith('1');
       expect(component.session).toEqual(mockSession);
       expect(component.teacher).toEqual(mockTeacher);
 
-      //should set isParticipate to true when user is in session users array
+      //should take isParticipate from the view
       expect(component.isParticipate).toBeTruthy();
 
       //should set isAdmin based on session service
@@ -164,13 +158,13 @@ describe('DetailComponent', () => {
       tick();
 
       expect(mockSessionApiService.participate).toHaveBeenCalledWith('1', '1');
-      expect(mockSessionApiService.detail).toHaveBeenCalled();
+      expect(mockSessionApiService.view).toHaveBeenCalled();
 
       component.unParticipate();
       tick();
 
       expect(mockSessionApiService.unParticipate).toHaveBeenCalledWith('1', '1');
-      expect(mockSessionApiService.detail).toHaveBeenCalled();
+      expect(mockSessionApiService.view).toHaveBeenCalled();
     }));
   });
 });
@@ -4,8 +4,7 @@ import { MatSnackBar } from '@angular/material/snack-bar';
 import { ActivatedRoute, Router } from '@angular/router';
 import { Teacher } from '../../../../interfaces/teacher.interface';
 import { SessionService } from '../../../../services/session.service';
-import { TeacherService } from '../../../../services/teacher.service';
-import { Session } from '../../interfaces/session.interface';
+import { SessionView } from '../../interfaces/session-view.interface';
 import { SessionApiService } from '../../services/session-api.service';
 
 @Component({
@@ -14,7 +13,7 @@ import { SessionApiService } from '../../services/session-api.service';
   styleUrls: ['./detail.component.scss']
 })
 export class DetailComponent implements OnInit {
-  public session: Session | undefined;
+  public session: SessionView | undefined;
   public teacher: Teacher | undefined;
 
   public isParticipate = false;
@@ -28,7 +27,6 @@ export class DetailComponent implements OnInit {
     private fb: FormBuilder,
     private sessionService: SessionService,
     private sessionApiService: SessionApiService,
-    private teacherService: TeacherService,
     private matSnackBar: MatSnackBar,
     private router: Router) {
     this.sessionId = this.route.snapshot.paramMap.get('id')!;
@@ -68,13 +66,11 @@ export class DetailComponent implements OnInit {
 
   private fetchSession(): void {
     this.sessionApiService
-      .detail(this.sessionId)
-      .subscribe((session: Session) => {
+      .view(this.sessionId)
+      .subscribe((session: SessionView) => {
         this.session = session;
-        this.isParticipate = session.users.some(u => u === this.sessionService.sessionInformation!.id);
-        this.teacherService
-          .detail(session.teacher_id.toString())
-          .subscribe((teacher: Teacher) => this.teacher = teacher);
+        this.isParticipate = session.participating;
+        this.teacher = session.teacher;
       });
   }
 
@@ -32,6 +32,7 @@ describe('FormComponent', () => {
     date: new Date('2024-12-25'),
     teacher_id: 1,
     description: 'Relaxing yoga session',
+    capacity: 12,
     users: [],
     createdAt: new Date(),
     updatedAt: new Date()
@@ -126,6 +127,7 @@ describe('FormComponent', () => {
       expect(component.onUpdate).toBeTruthy();
       expect(mockSessionApiService.detail).toHaveBeenCalledWith('1');
       expect(component.sessionForm?.get('name')?.value).toBe(mockSession.name);
+      expect(component.sessionForm?.get('capacity')?.value).toBe(12);
     }));
   });
 
@@ -151,6 +153,14 @@ describe('FormComponent', () => {
       });
       expect(component.sessionForm?.get('description')?.errors?.['maxlength']).toBeTruthy();
     });
+
+    it('should leave capacity optional but positive', () => {
+      expect(component.sessionForm?.get('capacity')?.value).toBeNull();
+      expect(component.sessionForm?.get('capacity')?.valid).toBeTruthy();
+
+      component.sessionForm?.patchValue({capacity: 0});
+      expect(component.sessionForm?.get('capacity')?.errors?.['min']).toBeTruthy();
+    });
   });
 
   describe('Form Submission', () => {
@@ -18,6 +18,7 @@ export class FormComponent implements OnInit {
   public sessionForm: FormGroup | undefined;
   public teachers$ = this.teacherService.all();
   private id: string | undefined;
+  private version: number | undefined;
 
   constructor(
     private route: ActivatedRoute,
@@ -40,7 +41,10 @@ export class FormComponent implements OnInit {
       this.id = this.route.snapshot.paramMap.get('id')!;
       this.sessionApiService
         .detail(this.id)
-        .subscribe((session: Session) => this.initForm(session));
+        .subscribe((session: Session) => {
+          this.version = session.version;
+          this.initForm(session);
+        });
     } else {
       this.initForm();
     }
@@ -60,7 +64,7 @@ export class FormComponent implements OnInit {
         });
     } else {
       this.sessionApiService
-        .update(this.id!, session)
+        .update(this.id!, session, this.version!)
         .subscribe({
           next: () => this.exitPage('Session updated !'),
           error: () => {
@@ -91,6 +95,10 @@ export class FormComponent implements OnInit {
           Validators.maxLength(2000)
         ]
       ],
+      capacity: [
+        session?.capacity ?? null,
+        [Validators.min(1)]
+      ],
     });
   }
 
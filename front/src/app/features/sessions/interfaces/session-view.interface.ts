@@ -0,0 +1,15 @@
+import { Teacher } from '../../../interfaces/teacher.interface';
+
+export interface SessionView {
+  id: number;
+  name: string;
+  description: string;
+  date: Date;
+  capacity?: number;
+  version: number;
+  teacher?: Teacher;
+  participantCount: number;
+  participating: boolean;
+  createdAt?: Date;
+  updatedAt?: Date;
+}
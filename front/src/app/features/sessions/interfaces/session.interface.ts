@@ -4,7 +4,9 @@ export interface Session {
   description: string;
   date: Date;
   teacher_id: number;
+  capacity?: number | null;
   users: number[];
+  version?: number;
   createdAt?: Date;
   updatedAt?: Date;
 }
@@ -3,6 +3,7 @@ import { TestBed } from '@angular/core/testing';
 import { of } from 'rxjs';
 import { SessionApiService } from './session-api.service';
 import { Session } from '../interfaces/session.interface';
+import { SessionView } from '../interfaces/session-view.interface';
 
 describe('SessionApiService', () => {
   let service: SessionApiService;
@@ -19,6 +20,16 @@ describe('SessionApiService', () => {
     updatedAt: new Date()
   };
 
+  const mockView: SessionView = {
+    id: 1,
+    name: 'Yoga Class',
+    description: 'Relaxing yoga session',
+    date: new Date(),
+    version: 0,
+    participantCount: 3,
+    participating: false
+  };
+
   beforeEach(() => {
     httpClientSpy = {
       get: jest.fn(),
@@ -48,7 +59,8 @@ describe('SessionApiService', () => {
     // Mock HTTP responses
     httpClientSpy.get
       .mockReturnValueOnce(of([mockSession])) // for all()
-      .mockReturnValueOnce(of(mockSession));  // for detail()
+      .mockReturnValueOnce(of(mockSession))   // for detail()
+      .mockReturnValueOnce(of(mockView));     // for view()
     httpClientSpy.post
       .mockReturnValueOnce(of(mockSession))   // for create()
       .mockReturnValueOnce(of(void 0));       // for participate()
@@ -67,15 +79,23 @@ describe('SessionApiService', () => {
         expect(session).toEqual(mockSession);
         expect(httpClientSpy.get).toHaveBeenCalledWith(`api/session/${sessionId}`);
 
+        // Test 2b: Get the detail page view (the observable is synchronous)
+        service.view(sessionId).subscribe(view => {
+          expect(view).toEqual(mockView);
+          expect(httpClientSpy.get).toHaveBeenCalledWith(`api/session/${sessionId}/view`);
+        }, done.fail);
+
         // Test 3: Create new session
         service.create(newSession).subscribe(createdSession => {
           expect(createdSession).toEqual(mockSession);
           expect(httpClientSpy.post).toHaveBeenCalledWith('api/session', newSession);
 
           // Test 4: Update session
-          service.update(sessionId, updatedSession).subscribe(updated => {
+          service.update(sessionId, updatedSession, 3).subscribe(updated => {
             expect(updated).toEqual(updatedSession);
-            expect(httpClientSpy.put).toHaveBeenCalledWith(`api/session/${sessionId}`, updatedSession);
+            expect(httpClientSpy.put).toHaveBeenCalledWith(`api/session/${sessionId}`, updatedSession, {
+              headers: { 'If-Match': `"${sessionId}-3"` }
+            });
 
             // Test 5: Delete session
             service.delete(sessionId).subscribe(response => {
@@ -108,7 +128,7 @@ describe('SessionApiService', () => {
 
   // Verify spy calls counts
   afterEach(() => {
-    expect(httpClientSpy.get).toHaveBeenCalledTimes(2);  // all() and detail()
+    expect(httpClientSpy.get).toHaveBeenCalledTimes(3);  // all(), detail() and view()
     expect(httpClientSpy.post).toHaveBeenCalledTimes(2); // create() and participate()
     expect(httpClientSpy.put).toHaveBeenCalledTimes(1);  // update()
     expect(httpClientSpy.delete).toHaveBeenCalledTimes(2); // delete() and unParticipate()
@@ -2,6 +2,7 @@ import { HttpClient } from '@angular/common/http';
 import { Injectable } from '@angular/core';
 import { Observable } from 'rxjs';
 import { Session } from '../interfaces/session.interface';
+import { SessionView } from '../interfaces/session-view.interface';
 
 @Injectable({
   providedIn: 'root'
@@ -21,6 +22,10 @@ export class SessionApiService {
     return this.httpClient.get<Session>(`${this.pathService}/${id}`);
   }
 
+  public view(id: string): Observable<SessionView> {
+    return this.httpClient.get<SessionView>(`${this.pathService}/${id}/view`);
+  }
+
   public delete(id: string): Observable<any> {
     return this.httpClient.delete(`${this.pathService}/${id}`);
   }
@@ -29,8 +34,10 @@ export class SessionApiService {
     return this.httpClient.post<Session>(this.pathService, session);
   }
 
-  public update(id: string, session: Session): Observable<Session> {
-    return this.httpClient.put<Session>(`${this.pathService}/${id}`, session);
+  public update(id: string, session: Session, version: number): Observable<Session> {
+    return this.httpClient.put<Session>(`${this.pathService}/${id}`, session, {
+      headers: { 'If-Match': `"${id}-${version}"` }
+    });
   }
 
   public participate(id: string, userId: string): Observable<void> {
@@ -0,0 +1,98 @@
+import {TestBed} from '@angular/core/testing';
+import {HTTP_INTERCEPTORS, HttpClient} from '@angular/common/http';
+import {HttpClientTestingModule, HttpTestingController} from '@angular/common/http/testing';
+import {Router} from '@angular/router';
+import {JwtInterceptor} from './jwt.interceptor';
+import {SessionService} from '../services/session.service';
+import {SessionInformation} from '../interfaces/sessionInformation.interface';
+
+describe('JwtInterceptor', () => {
+  let httpClient: HttpClient;
+  let httpMock: HttpTestingController;
+  let sessionService: SessionService;
+  let mockRouter: { navigate: jest.Mock };
+
+  const mockSessionInfo: SessionInformation = {
+    id: 1,
+    admin: false,
+    token: 'expired-token',
+    refreshToken: 'refresh-token'
+  } as any;
+
+  beforeEach(() => {
+    mockRouter = {navigate: jest.fn()};
+
+    TestBed.configureTestingModule({
+      imports: [HttpClientTestingModule],
+      providers: [
+        {provide: HTTP_INTERCEPTORS, useClass: JwtInterceptor, multi: true},
+        {provide: Router, useValue: mockRouter}
+      ]
+    });
+
+    httpClient = TestBed.inject(HttpClient);
+    httpMock = TestBed.inject(HttpTestingController);
+    sessionService = TestBed.inject(SessionService);
+    sessionService.logIn({...mockSessionInfo});
+  });
+
+  afterEach(() => {
+    httpMock.verify();
+  });
+
+  it('should send the access token', () => {
+    httpClient.get('api/session').subscribe();
+
+    const req = httpMock.expectOne('api/session');
+    expect(req.request.headers.get('Authorization')).toBe('Bearer expired-token');
+    req.flush([]);
+  });
+
+  it('should refresh once and replay every request rejected with 401', () => {
+    // Arrange
+    const results: any[] = [];
+    httpClient.get('api/session').subscribe((body) => results.push(body));
+    httpClient.get('api/teacher').subscribe((body) => results.push(body));
+
+    // Act
+    httpMock.expectOne('api/session').flush(null, {status: 401, statusText: 'Unauthorized'});
+    httpMock.expectOne('api/teacher').flush(null, {status: 401, statusText: 'Unauthorized'});
+    const refresh = httpMock.expectOne('api/auth/refresh');
+    expect(refresh.request.body).toEqual({refreshToken: 'refresh-token'});
+    refresh.flush({token: 'new-token', type: 'Bearer', refreshToken: 'next-refresh-token'});
+
+    // Assert
+    const replays = [httpMock.expectOne('api/session'), httpMock.expectOne('api/teacher')];
+    replays.forEach((replay) => {
+      expect(replay.request.headers.get('Authorization')).toBe('Bearer new-token');
+      replay.flush('ok');
+    });
+    expect(results).toEqual(['ok', 'ok']);
+    expect(sessionService.sessionInformation?.refreshToken).toBe('next-refresh-token');
+  });
+
+  it('should log out when the refresh token is rejected', () => {
+    // Arrange
+    let failure: any;
+    httpClient.get('api/session').subscribe({error: (error) => failure = error});
+
+    // Act
+    httpMock.expectOne('api/session').flush(null, {status: 401, statusText: 'Unauthorized'});
+    httpMock.expectOne('api/auth/refresh').flush(null, {status: 403, statusText: 'Forbidden'});
+
+    // Assert
+    expect(failure.status).toBe(403);
+    expect(sessionService.isLogged).toBeFalsy();
+    expect(mockRouter.navigate).toHaveBeenCalledWith(['login']);
+  });
+
+  it('should not refresh for a rejected auth call', () => {
+    let failure: any;
+    httpClient.post('api/auth/logout', {}).subscribe({error: (error) => failure = error});
+
+    httpMock.expectOne('api/auth/logout').flush(null, {status: 401, statusText: 'Unauthorized'});
+
+    expect(failure.status).toBe(401);
+    expect(sessionService.isLogged).toBeTruthy();
+  });
+});
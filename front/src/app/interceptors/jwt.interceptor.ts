@@ -1,19 +1,66 @@
-import { HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
+import { HttpErrorResponse, HttpEvent, HttpHandler, HttpInterceptor, HttpRequest } from "@angular/common/http";
 import { Injectable } from "@angular/core";
+import { Router } from '@angular/router';
+import { Observable, throwError } from 'rxjs';
+import { catchError, finalize, map, shareReplay, switchMap } from 'rxjs/operators';
+import { AuthService } from '../features/auth/services/auth.service';
 import { SessionService } from '../services/session.service';
 
 @Injectable({ providedIn: 'root' })
 export class JwtInterceptor implements HttpInterceptor {
-  constructor(private sessionService: SessionService) {}
+  private refresh$: Observable<void> | null = null;
 
-  public intercept(request: HttpRequest<any>, next: HttpHandler) {
-    if (this.sessionService.isLogged) {
-      request = request.clone({
-        setHeaders: {
-          Authorization: `Bearer ${this.sessionService.sessionInformation!.token}`,
-        },
-      });
+  constructor(private sessionService: SessionService,
+              private authService: AuthService,
+              private router: Router) {}
+
+  public intercept(request: HttpRequest<any>, next: HttpHandler): Observable<HttpEvent<any>> {
+    return next.handle(this.authorize(request)).pipe(
+      catchError((error) => {
+        if (error instanceof HttpErrorResponse && error.status === 401 && this.canRefresh(request)) {
+          return this.refreshTokens().pipe(
+            switchMap(() => next.handle(this.authorize(request)))
+          );
+        }
+        return throwError(() => error);
+      })
+    );
+  }
+
+  private authorize(request: HttpRequest<any>): HttpRequest<any> {
+    if (!this.sessionService.isLogged) {
+      return request;
+    }
+    return request.clone({
+      setHeaders: {
+        Authorization: `Bearer ${this.sessionService.sessionInformation!.token}`,
+      },
+    });
+  }
+
+  // Auth calls are never retried, so a rejected refresh cannot start another one
+  private canRefresh(request: HttpRequest<any>): boolean {
+    return this.sessionService.isLogged
+      && !!this.sessionService.sessionInformation!.refreshToken
+      && !request.url.includes('api/auth/');
+  }
+
+  // Requests rejected together share one refresh, the server accepts each refresh token only once
+  private refreshTokens(): Observable<void> {
+    if (!this.refresh$) {
+      this.refresh$ = this.authService
+        .refresh(this.sessionService.sessionInformation!.refreshToken!)
+        .pipe(
+          map((tokens) => this.sessionService.refreshed(tokens.token, tokens.refreshToken)),
+          catchError((error) => {
+            this.sessionService.logOut();
+            this.router.navigate(['login']);
+            return throwError(() => error);
+          }),
+          finalize(() => this.refresh$ = null),
+          shareReplay(1)
+        );
     }
-    return next.handle(request);
+    return this.refresh$;
   }
 }
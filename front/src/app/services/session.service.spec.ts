@@ -62,4 +62,17 @@ describe('SessionService', () => {
       expect(loggedOutState).toBeFalsy();
     });
   });
+
+  describe('Token Refresh', () => {
+    it('should replace both tokens and keep the rest of the session', () => {
+      service.logIn({...mockSessionInfo, refreshToken: 'old-refresh'});
+
+      service.refreshed('new-token', 'new-refresh');
+
+      expect(service.sessionInformation?.token).toBe('new-token');
+      expect(service.sessionInformation?.refreshToken).toBe('new-refresh');
+      expect(service.sessionInformation?.id).toBe(mockSessionInfo.id);
+      expect(service.isLogged).toBeTruthy();
+    });
+  });
 });
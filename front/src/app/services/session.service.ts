@@ -22,6 +22,11 @@ export class SessionService {
     this.next();
   }
 
+  // The access token is short-lived, the interceptor renews it with the single-use refresh token
+  public refreshed(token: string, refreshToken: string): void {
+    this.sessionInformation = { ...this.sessionInformation!, token, refreshToken };
+  }
+
   public logOut(): void {
     this.sessionInformation = undefined;
     this.isLogged = false;